@@ -0,0 +1,30 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The driver class to run the dungeon benchmarks with the GC profiler, which reports the
+ * allocation rate of each benchmark next to its timing.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args the JMH command line options, for example a regular expression selecting the
+   *             benchmarks to run or -p size=100 to run a single grid size.
+   * @throws RunnerException            if a benchmark fails to run
+   * @throws CommandLineOptionException if the options cannot be parsed
+   */
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+    new Runner(options).run();
+  }
+}
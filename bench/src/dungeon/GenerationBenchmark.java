@@ -0,0 +1,198 @@
+package dungeon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import randoms.RandomGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each phase of the dungeon creation separately, along with the creation of the whole
+ * dungeon. A phase can only be run once on a dungeon, so before every iteration a batch of
+ * fresh dungeons is set up with all the phases that come before the measured phase already run,
+ * and each invocation in the batch runs the measured phase on the next dungeon. Every score is
+ * therefore the time taken by a batch of BATCH_SIZE dungeons, without any setup in between.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = GenerationBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = GenerationBenchmark.BATCH_SIZE)
+@Fork(1)
+@State(Scope.Thread)
+public class GenerationBenchmark {
+  static final int BATCH_SIZE = 10;
+  private static final long SEED = 42L;
+
+  @Param({"10", "100", "300"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean wrap;
+
+  /**
+   * The degree of interconnectivity as a percentage of the paths that can be added to the maze.
+   */
+  @Param({"0", "10", "50"})
+  private int interconnectivity;
+
+  private DungeonConfig config;
+
+  @Setup(Level.Trial)
+  public void setUpConfig() {
+    config = config(size, wrap, interconnectivity, 20);
+  }
+
+  /**
+   * Creates the configuration of a square dungeon, whose degree of interconnectivity is given as
+   * a percentage of the paths that can be added to the maze.
+   */
+  static DungeonConfig config(int size, boolean wrap, int interconnectivity, int treasure) {
+    int cells = size * size;
+    int edges = wrap ? cells * 2 : (cells * 2) - size - size;
+    int extraPaths = edges - (cells - 1);
+    return new DungeonConfig(size, size, extraPaths * interconnectivity / 100, wrap, treasure);
+  }
+
+  private MasterDungeon prepare(int phases) {
+    MasterDungeon d = MasterDungeon.unbuilt(config, new RandomGenerator(SEED));
+    if (phases > 0) {
+      d.initializeAllEdges();
+    }
+    if (phases > 1) {
+      d.createKruskalsMaze();
+    }
+    if (phases > 2) {
+      d.applyInterconnectivity();
+    }
+    if (phases > 3) {
+      d.createCaves();
+    }
+    if (phases > 4) {
+      d.setTerminals();
+    }
+    return d;
+  }
+
+  /**
+   * The dungeons used by one batch, each of which is used by a single invocation.
+   */
+  static class Batch {
+    private final MasterDungeon[] dungeons = new MasterDungeon[BATCH_SIZE];
+    private int next;
+
+    void fill(GenerationBenchmark benchmark, int phases) {
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        dungeons[i] = benchmark.prepare(phases);
+      }
+      next = 0;
+    }
+
+    MasterDungeon next() {
+      return dungeons[next++];
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Initialized extends Batch {
+    @Setup(Level.Iteration)
+    public void setUp(GenerationBenchmark benchmark) {
+      fill(benchmark, 1);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Spanned extends Batch {
+    @Setup(Level.Iteration)
+    public void setUp(GenerationBenchmark benchmark) {
+      fill(benchmark, 2);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Interconnected extends Batch {
+    @Setup(Level.Iteration)
+    public void setUp(GenerationBenchmark benchmark) {
+      fill(benchmark, 3);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Caved extends Batch {
+    @Setup(Level.Iteration)
+    public void setUp(GenerationBenchmark benchmark) {
+      fill(benchmark, 4);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Terminated extends Batch {
+    @Setup(Level.Iteration)
+    public void setUp(GenerationBenchmark benchmark) {
+      fill(benchmark, 5);
+    }
+  }
+
+  @Benchmark
+  public MasterDungeon initializeAllEdges() {
+    MasterDungeon d = MasterDungeon.unbuilt(config, new RandomGenerator(SEED));
+    d.initializeAllEdges();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon createKruskalsMaze(Initialized batch) {
+    MasterDungeon d = batch.next();
+    d.createKruskalsMaze();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon applyInterconnectivity(Spanned batch) {
+    MasterDungeon d = batch.next();
+    d.applyInterconnectivity();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon createCaves(Interconnected batch) {
+    MasterDungeon d = batch.next();
+    d.createCaves();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon setTerminals(Caved batch) {
+    MasterDungeon d = batch.next();
+    d.setTerminals();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon computeExitDistances(Terminated batch) {
+    MasterDungeon d = batch.next();
+    d.computeExitDistances();
+    return d;
+  }
+
+  @Benchmark
+  public MasterDungeon assignTreasure(Terminated batch) {
+    MasterDungeon d = batch.next();
+    d.assignTreasure();
+    return d;
+  }
+
+  @Benchmark
+  public GameModel createDungeon() {
+    return new DungeonGame(config, new RandomGenerator(SEED));
+  }
+}
@@ -0,0 +1,76 @@
+package dungeon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import randoms.RandomGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations a player performs on every turn of the game. The player moves back
+ * and forth through the first open door of the start location, so every move is a valid move
+ * and the cost does not depend on how far the player has walked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TurnBenchmark {
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean wrap;
+
+  /**
+   * The degree of interconnectivity as a percentage of the paths that can be added to the maze.
+   */
+  @Param({"0", "10"})
+  private int interconnectivity;
+
+  private DungeonGame game;
+  private String[] directions;
+  private int turn;
+
+  @Setup
+  public void setUp() {
+    game = new DungeonGame(GenerationBenchmark.config(size, wrap, interconnectivity, 50),
+            new RandomGenerator(42L));
+    game.createPlayer();
+    game.addPlayerInDungeon();
+    Dungeon d = game.getDungeon();
+    for (Direction dir : Direction.values()) {
+      if ((d.getDoors(d.getStartLocation()) & dir.doorBit()) != 0) {
+        directions = new String[]{dir.getName(), dir.opposite().getName()};
+        break;
+      }
+    }
+  }
+
+  @Benchmark
+  public String movePlayerTo() {
+    return game.movePlayerTo(directions[turn++ & 1]);
+  }
+
+  @Benchmark
+  public String pickTreasureAtLocation() {
+    game.pickTreasureAtLocation();
+    return game.getPlayerLocation();
+  }
+
+  @Benchmark
+  public String getPlayerLocationDescription() {
+    return game.getPlayerLocationDescription();
+  }
+}
@@ -127,16 +127,15 @@ public class GameDriver {
           String[] s = edge.split("-");
           String p1 = s[0];
           String p2 = s[1];
-          if (p1.equals("" + i + j) && p2.equals("" + i + (j + 1))
-                  || p1.equals("" + i + j) && p2.equals("" + i + "0")) {
+          if (p1.equals(location(i, j)) && p2.equals(location(i, (j + 1) % colCount))) {
             edgeFound_h = true;
           }
         }
-        if (playerLoc.equals("" + i + j)) {
+        if (playerLoc.equals(location(i, j))) {
           System.out.print("P");
-        } else if (startLoc.equals("" + i + j)) {
+        } else if (startLoc.equals(location(i, j))) {
           System.out.print("S");
-        } else if (endLoc.equals("" + i + j)) {
+        } else if (endLoc.equals(location(i, j))) {
           System.out.print("E");
         } else {
           System.out.print("0");
@@ -154,8 +153,7 @@ public class GameDriver {
           String[] s = edge.split("-");
           String p1 = s[0];
           String p2 = s[1];
-          if (p1.equals("" + i + j) && p2.equals("" + (i + 1) + j)
-                  || p1.equals("" + i + j) && p2.equals("" + "0" + j)) {
+          if (p1.equals(location(i, j)) && p2.equals(location((i + 1) % rowCount, j))) {
             edgeFound_v = true;
           }
         }
@@ -170,6 +168,20 @@ public class GameDriver {
     }
   }
 
+  /**
+   * Gets the location string the model uses for a cell. The row and column are padded to the
+   * no. of digits of the largest row and column of the dungeon.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the location string of the cell
+   */
+  private static String location(int row, int col) {
+    int rowDigits = String.valueOf(rowCount - 1).length();
+    int colDigits = String.valueOf(colCount - 1).length();
+    return String.format("%0" + rowDigits + "d%0" + colDigits + "d", row, col);
+  }
+
   //get dummy random values for 5X5, deg-6, non-wrap dungeon
   private static List<Integer> getNonWrapDummyValues(List<Integer> randomValues) {
     int[] kruskals = {20, 6, 7, 11, 17, 15, 29, 27, 5, 3, 6, 5, 7, 24, 6, 11, 17, 13, 9, 0, 18,
@@ -186,10 +198,15 @@ public class GameDriver {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {14, 8, 22, 3, 6};
+    int[] treasure = {3, 8, 7, 6};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     return randomValues;
   }
 
@@ -216,11 +233,15 @@ public class GameDriver {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {21, 21, 9, 13, 22, 13, 4, 15, 12, 5, 13, 1, 20, 22, 13, 14, 20, 23, 20, 21,
-                      17};
+    int[] treasure = {7, 13, 1, 5, 3, 8};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {2, 5, 1, 0, 3, 7, 9, 4, 6, 1, 1, 8, 4, 0, 2, 7, 6, 3};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     return randomValues;
   }
 
@@ -0,0 +1,267 @@
+package dungeon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the behaviour shared by all dungeons, whatever the storage of their locations. The
+ * player movement, treasure pick up and location descriptions are implemented once in terms of
+ * the door bitmask and packed treasure word of each location, which every dungeon provides. The
+ * class is kept package private as it will be used only within the dungeon model package.
+ */
+abstract class AbstractDungeon implements Dungeon, Passages {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private DungeonSearch pathSearch;
+  private ExitDistanceField exitField;
+
+  /**
+   * Removes all the treasure at a location.
+   *
+   * @param loc the cell id of the location, which is known to exist in the dungeon
+   * @return the packed treasure word of the treasure that was at the location
+   */
+  abstract int takeTreasure(int loc);
+
+  /**
+   * Gets the location behind the door in the given direction.
+   *
+   * @param loc       the cell id of the location, which is known to exist in the dungeon
+   * @param direction the direction of the door
+   * @return the cell id of the neighbouring location or NO_CELL if there is a wall
+   */
+  final int neighbour(int loc, Direction direction) {
+    return neighbour(loc, direction.ordinal());
+  }
+
+  @Override
+  public int neighbour(int loc, int direction) {
+    if ((getDoors(loc) & DungeonGrid.doorBit(direction)) == 0) {
+      return DungeonGrid.NO_CELL;
+    }
+    return getGrid().neighbour(loc, direction);
+  }
+
+  /**
+   * Checks whether the dungeon is held outside the heap, in which case the buffers of its
+   * searches are held outside the heap as well.
+   *
+   * @return true if the dungeon is held outside the heap
+   */
+  boolean isOffHeap() {
+    return false;
+  }
+
+  /**
+   * Gets the search used to find routes in the dungeon. It reads the doors of the dungeon as it
+   * goes, and its buffers are allocated on first use.
+   *
+   * @return the search over the paths of the dungeon
+   */
+  DungeonSearch getSearch() {
+    if (pathSearch == null) {
+      pathSearch = new DungeonSearch(this, getGrid().getCellCount(), isOffHeap());
+    }
+    return pathSearch;
+  }
+
+  /**
+   * Gets the distance from every location to the end location. It is built by reading the doors
+   * of the dungeon on first use, unless the dungeon already has one.
+   *
+   * @return the exit distance field of the dungeon
+   */
+  ExitDistanceField getExitField() {
+    if (exitField == null) {
+      exitField = new ExitDistanceField(getGrid(), this, getEndLocation(), isOffHeap());
+    }
+    return exitField;
+  }
+
+  /**
+   * Finds the locations along a shortest route between 2 locations.
+   *
+   * @param from the cell id of the first location, which is known to exist in the dungeon
+   * @param to   the cell id of the last location, which is known to exist in the dungeon
+   * @return the cell ids of the locations on the route, including both ends, or null if there
+   *          is no route
+   */
+  int[] route(int from, int to) {
+    return getSearch().shortestPath(from, to);
+  }
+
+  /**
+   * Checks whether a cell id is a location of this dungeon.
+   *
+   * @param loc the cell id
+   * @return true if the location exists in the dungeon
+   */
+  boolean isValidLocation(int loc) {
+    return loc >= 0 && loc < getGrid().getCellCount();
+  }
+
+  @Override
+  public void addPlayer(Player p) {
+    if (p == null) {
+      throw new IllegalArgumentException("Player cannot be null.");
+    }
+    p.setLocation(getStartLocation());
+  }
+
+  @Override
+  public MoveOutcome move(Player p, Direction direction) {
+    if (p == null) {
+      throw new IllegalArgumentException("Player cannot be null.");
+    }
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    int loc = p.getLocation();
+    if (!isValidLocation(loc)) {
+      return MoveOutcome.BLOCKED;
+    }
+    int nextLoc = neighbour(loc, direction);
+    if (nextLoc == DungeonGrid.NO_CELL) {
+      return MoveOutcome.BLOCKED;
+    }
+    p.setLocation(nextLoc);
+    return nextLoc == getEndLocation() ? MoveOutcome.REACHED_END : MoveOutcome.MOVED;
+  }
+
+  @Override
+  public void pickTreasure(Player p) {
+    if (p == null) {
+      throw new IllegalArgumentException("Player cannot be null.");
+    }
+    if (isValidLocation(p.getLocation())) {
+      int word = takeTreasure(p.getLocation());
+      p.addTreasure(Treasure.DIAMONDS.countIn(word), Treasure.SAPPHIRES.countIn(word),
+              Treasure.RUBIES.countIn(word));
+    }
+  }
+
+  @Override
+  public List<Direction> shortestPath(int from, int to) {
+    if (!isValidLocation(from) || !isValidLocation(to)) {
+      throw new IllegalArgumentException("Location does not exist in the dungeon.");
+    }
+    int[] cells = route(from, to);
+    if (cells == null) {
+      return null;
+    }
+    List<Direction> path = new ArrayList<>(cells.length - 1);
+    for (int i = 1; i < cells.length; i++) {
+      //on narrow wrapping grids 2 doors can lead to the same neighbour, so match the door used
+      for (Direction d : DIRECTIONS) {
+        if (neighbour(cells[i - 1], d) == cells[i]) {
+          path.add(d);
+          break;
+        }
+      }
+    }
+    return path;
+  }
+
+  @Override
+  public int getExitDistance(int loc) {
+    if (!isValidLocation(loc)) {
+      throw new IllegalArgumentException("Location does not exist in the dungeon.");
+    }
+    return getExitField().distance(loc);
+  }
+
+  @Override
+  public Direction getExitDirection(int loc) {
+    if (!isValidLocation(loc)) {
+      throw new IllegalArgumentException("Location does not exist in the dungeon.");
+    }
+    int direction = getExitField().nextDirection(loc);
+    return direction == ExitDistanceField.NO_DIRECTION ? null : DIRECTIONS[direction];
+  }
+
+  @Override
+  public boolean openPassage(int loc, Direction direction) {
+    throw new IllegalStateException("The passages of this dungeon cannot be changed.");
+  }
+
+  @Override
+  public boolean closePassage(int loc, Direction direction) {
+    throw new IllegalStateException("The passages of this dungeon cannot be changed.");
+  }
+
+  /**
+   * Frees the buffers of the searches of the dungeon, which are allocated again if the dungeon
+   * is searched after being closed.
+   */
+  @Override
+  public void close() {
+    if (pathSearch != null) {
+      pathSearch.free();
+      pathSearch = null;
+    }
+    if (exitField != null) {
+      exitField.free();
+      exitField = null;
+    }
+  }
+
+  @Override
+  public List<Edge> getEdges() {
+    //every path is listed once, from the location on its west or north side
+    DungeonGrid grid = getGrid();
+    List<Edge> edges = new ArrayList<>();
+    for (int loc = 0; loc < grid.getCellCount(); loc++) {
+      if ((getDoors(loc) & Direction.EAST.doorBit()) != 0) {
+        edges.add(new DungeonEdge(loc, grid.neighbour(loc, DungeonGrid.EAST)));
+      }
+      if ((getDoors(loc) & Direction.SOUTH.doorBit()) != 0) {
+        edges.add(new DungeonEdge(loc, grid.neighbour(loc, DungeonGrid.SOUTH)));
+      }
+    }
+    return edges;
+  }
+
+  @Override
+  public String getLocationType(int loc) {
+    if (!isValidLocation(loc)) {
+      return "Location Not Found. Please try entering a valid location";
+    }
+    if (Integer.bitCount(getDoors(loc)) == 2) {
+      return "Tunnel";
+    } else {
+      return "Cave";
+    }
+  }
+
+  @Override
+  public String getLocationTreasure(int loc) {
+    if (!isValidLocation(loc)) {
+      return "Treasure details Not Found. Please try entering a valid location";
+    }
+    return describeTreasure(getTreasure(loc));
+  }
+
+  /**
+   * Describes the treasure held in a packed treasure word.
+   *
+   * @param word the packed treasure word
+   * @return the description of the treasure
+   */
+  static String describeTreasure(int word) {
+    return "Diamonds- " + Treasure.DIAMONDS.countIn(word) + ", Sapphires- "
+            + Treasure.SAPPHIRES.countIn(word) + ", Rubies- " + Treasure.RUBIES.countIn(word);
+  }
+
+  @Override
+  public String getNextPossibleMoves(int loc) {
+    String moves = "";
+    if (isValidLocation(loc)) {
+      for (Direction d : DIRECTIONS) {
+        if ((getDoors(loc) & d.doorBit()) != 0) {
+          moves += d.getName() + " ";
+        }
+      }
+    }
+    return moves;
+  }
+}
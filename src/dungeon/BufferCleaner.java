@@ -0,0 +1,54 @@
+package dungeon;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees the memory of direct buffers through the cleaner that the runtime attaches to each of
+ * them, instead of waiting for the garbage collector. The cleaner is reached through
+ * sun.misc.Unsafe, which is looked up once; where it cannot be reached the buffers are only
+ * dropped and are freed by the garbage collector as before. A freed buffer must never be read
+ * again, so the owner of a buffer has to make sure that no other thread is using it when it is
+ * freed. The class is kept package private as it will be used only within the dungeon model
+ * package.
+ */
+final class BufferCleaner {
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      //the buffers are left to the garbage collector
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private BufferCleaner() {
+  }
+
+  /**
+   * Frees the memory of a direct buffer.
+   *
+   * @param buffer the direct buffer, which is never read again
+   */
+  static void free(ByteBuffer buffer) {
+    if (INVOKE_CLEANER == null) {
+      return;
+    }
+    try {
+      INVOKE_CLEANER.invoke(UNSAFE, buffer);
+    } catch (ReflectiveOperationException e) {
+      //the buffer is left to the garbage collector
+    }
+  }
+}
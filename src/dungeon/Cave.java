@@ -3,106 +3,64 @@ package dungeon;
 /**
  * Represents a cave or tunnel in the dungeon. If the location has 2 entry points, then it is
  * classified as tunnel. A tunnel cannot have treasure, whereas a cave can contain treasure.
- * Each cave/tunnel maintains the directions which can be used to move to a neighbouring cave.
- * The class is kept package private as it will be used only within the dungeon model package.
+ * Each cave/tunnel is a flyweight view over the cave store of the dungeon, which holds the
+ * bitmask of open doors and the treasure of every location, so a cave holds no state other than
+ * its location. The class is kept package private as it will be used only within the dungeon
+ * model package.
  */
 class Cave {
-  private final boolean moveNorth;
-  private final boolean moveSouth;
-  private final boolean moveEast;
-  private final boolean moveWest;
-  private final String location;
-  private boolean isTunnel;
-  private int diamondCount;
-  private int sapphireCount;
-  private int rubyCount;
+  private static final int NORTH_DOOR = DungeonGrid.doorBit(DungeonGrid.NORTH);
+  private static final int SOUTH_DOOR = DungeonGrid.doorBit(DungeonGrid.SOUTH);
+  private static final int EAST_DOOR = DungeonGrid.doorBit(DungeonGrid.EAST);
+  private static final int WEST_DOOR = DungeonGrid.doorBit(DungeonGrid.WEST);
+
+  private final CaveStore store;
+  private final int location;
 
   /**
-   * Creates a cave/tunnel and sets its initial values.
+   * Creates a view of a cave/tunnel.
    *
-   * @param location  location of the cave in the dungeon
-   * @param moveNorth true if the door to north side is open, false if there is no door
-   * @param moveSouth true if the door to south side is open, false if there is no door
-   * @param moveEast  true if the door to east side is open, false if there is no door
-   * @param moveWest  true if the door to west side is open, false if there is no door
+   * @param store    the cave store of the dungeon
+   * @param location cell id of the cave in the dungeon
    */
-  Cave(String location, boolean moveNorth, boolean moveSouth, boolean moveEast,
-       boolean moveWest) {
+  Cave(CaveStore store, int location) {
+    this.store = store;
     this.location = location;
-    this.moveNorth = moveNorth;
-    this.moveSouth = moveSouth;
-    this.moveEast = moveEast;
-    this.moveWest = moveWest;
-    setIsTunnel();
-  }
-
-  private void setIsTunnel() {
-    int openDoorCounter = 0;
-    if (moveNorth) {
-      openDoorCounter++;
-    }
-    if (moveSouth) {
-      openDoorCounter++;
-    }
-    if (moveEast) {
-      openDoorCounter++;
-    }
-    if (moveWest) {
-      openDoorCounter++;
-    }
-    if (openDoorCounter == 2) {
-      isTunnel = true;
-    } else {
-      isTunnel = false;
-    }
   }
 
   protected boolean isMoveNorth() {
-    return moveNorth;
+    return (store.getDoors(location) & NORTH_DOOR) != 0;
   }
 
   protected boolean isMoveSouth() {
-    return moveSouth;
+    return (store.getDoors(location) & SOUTH_DOOR) != 0;
   }
 
   protected boolean isMoveEast() {
-    return moveEast;
+    return (store.getDoors(location) & EAST_DOOR) != 0;
   }
 
   protected boolean isMoveWest() {
-    return moveWest;
+    return (store.getDoors(location) & WEST_DOOR) != 0;
   }
 
   protected boolean isTunnel() {
-    return isTunnel;
-  }
-
-  protected void assignInitialTreasure() {
-    this.diamondCount = Treasure.DIAMONDS.getRandomQuantity();
-    this.sapphireCount = Treasure.SAPPHIRES.getRandomQuantity();
-    this.rubyCount = Treasure.RUBIES.getRandomQuantity();
-  }
-
-  protected void updatePickedTreasureStatus() {
-    this.diamondCount = 0;
-    this.sapphireCount = 0;
-    this.rubyCount = 0;
+    return store.isTunnel(location);
   }
 
   protected int getDiamondCount() {
-    return this.diamondCount;
+    return Treasure.DIAMONDS.countIn(store.get(location));
   }
 
   protected int getSapphireCount() {
-    return this.sapphireCount;
+    return Treasure.SAPPHIRES.countIn(store.get(location));
   }
 
   protected int getRubyCount() {
-    return this.rubyCount;
+    return Treasure.RUBIES.countIn(store.get(location));
   }
 
-  protected String getLocation() {
+  protected int getLocation() {
     return location;
   }
 }
-
@@ -0,0 +1,120 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+/**
+ * Represents the caves and tunnels of a dungeon as parallel primitive arrays indexed by cell id,
+ * holding one bitmask of open doors and one packed treasure word per location. Compared to an
+ * object per location this takes 5 bytes per location, and scans over the whole dungeon read
+ * consecutive memory. Individual locations can still be looked at through Cave views, which are
+ * created on demand and hold no state of their own. The treasure array is only allocated once
+ * treasure is assigned. The class is kept package private as it will be used only within the
+ * dungeon model package.
+ */
+final class CaveStore implements TreasureStore {
+  private final byte[] doors;
+  private int[] treasure;
+
+  /**
+   * Creates the store for the given no. of locations, all with closed doors and no treasure.
+   *
+   * @param cellCount the no. of locations
+   */
+  CaveStore(int cellCount) {
+    if (cellCount < 0) {
+      throw new IllegalArgumentException("No. of locations cannot be negative.");
+    }
+    this.doors = new byte[cellCount];
+  }
+
+  /**
+   * Gets the array of door bitmasks, which searches over the dungeon read directly. The array is
+   * updated in place when doors are opened or closed.
+   *
+   * @return the bitmask of open doors of each cell
+   */
+  byte[] doors() {
+    return doors;
+  }
+
+  /**
+   * Gets the bitmask of open doors of a location.
+   *
+   * @param cell the cell id of the location
+   * @return the door bitmask
+   */
+  int getDoors(int cell) {
+    return doors[cell];
+  }
+
+  /**
+   * Opens the door of a location in the given direction.
+   *
+   * @param cell      the cell id of the location
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   */
+  void openDoor(int cell, int direction) {
+    doors[cell] |= DungeonGrid.doorBit(direction);
+  }
+
+  /**
+   * Closes the door of a location in the given direction.
+   *
+   * @param cell      the cell id of the location
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   */
+  void closeDoor(int cell, int direction) {
+    doors[cell] &= ~DungeonGrid.doorBit(direction);
+  }
+
+  /**
+   * Checks whether a location is a tunnel i.e. has exactly 2 doors.
+   *
+   * @param cell the cell id of the location
+   * @return true if the location is a tunnel
+   */
+  boolean isTunnel(int cell) {
+    return Integer.bitCount(doors[cell]) == 2;
+  }
+
+  /**
+   * Assigns a random quantity of each type of treasure to a location.
+   *
+   * @param cell the cell id of the location
+   * @param r    the randomizer used to draw the quantities
+   */
+  void assignInitialTreasure(int cell, Randomizer r) {
+    if (treasure == null) {
+      treasure = new int[doors.length];
+    }
+    int diamondCount = Treasure.DIAMONDS.getRandomQuantity(r);
+    int sapphireCount = Treasure.SAPPHIRES.getRandomQuantity(r);
+    int rubyCount = Treasure.RUBIES.getRandomQuantity(r);
+    treasure[cell] = Treasure.pack(diamondCount, sapphireCount, rubyCount);
+  }
+
+  @Override
+  public int get(int cell) {
+    return treasure == null ? 0 : treasure[cell];
+  }
+
+  @Override
+  public int take(int cell) {
+    if (treasure == null) {
+      return 0;
+    }
+    int word = treasure[cell];
+    treasure[cell] = 0;
+    return word;
+  }
+
+  /**
+   * Gets a view of a location.
+   *
+   * @param cell the cell id of the location
+   * @return the cave or tunnel at the location
+   */
+  Cave cave(int cell) {
+    return new Cave(this, cell);
+  }
+}
@@ -0,0 +1,184 @@
+package dungeon;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Represents an array of ints or bytes of a fixed size, such as the buffers of a search with one
+ * element per location of a dungeon. The elements are held either in a Java array or in direct
+ * buffers outside the heap, split into chunks of 2^CHUNK_SHIFT bytes as a single buffer cannot
+ * address all of them, so that the searches over a dungeon held outside the heap keep their
+ * buffers outside the heap as well, whatever the size of the dungeon. The class is not thread
+ * safe and is kept package private as it will be used only within the dungeon model package.
+ */
+abstract class CellArray {
+  private static final int CHUNK_SHIFT = 30;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+  /**
+   * Creates an array of ints, all 0.
+   *
+   * @param size    the no. of elements
+   * @param offHeap true to hold the elements in direct buffers outside the heap
+   * @return the array
+   */
+  static CellArray ofInts(int size, boolean offHeap) {
+    return offHeap ? new DirectArray(size, 2) : new IntArray(size);
+  }
+
+  /**
+   * Creates an array of bytes, all 0. The values stored must fit in a byte, and are read back
+   * with their sign.
+   *
+   * @param size    the no. of elements
+   * @param offHeap true to hold the elements in direct buffers outside the heap
+   * @return the array
+   */
+  static CellArray ofBytes(int size, boolean offHeap) {
+    return offHeap ? new DirectArray(size, 0) : new ByteArray(size);
+  }
+
+  /**
+   * Gets an element.
+   *
+   * @param index the index of the element
+   * @return the value of the element
+   */
+  abstract int get(int index);
+
+  /**
+   * Sets an element.
+   *
+   * @param index the index of the element
+   * @param value the new value of the element
+   */
+  abstract void set(int index, int value);
+
+  /**
+   * Sets every element to the same value.
+   *
+   * @param value the new value of every element
+   */
+  abstract void fill(int value);
+
+  /**
+   * Frees the memory that the array holds outside the heap, after which the array cannot be
+   * used. Arrays held on the heap have nothing to free.
+   */
+  void free() {
+    //the array is held on the heap and is freed by the garbage collector
+  }
+
+  /**
+   * Represents an array of ints held on the heap.
+   */
+  private static final class IntArray extends CellArray {
+    private final int[] values;
+
+    IntArray(int size) {
+      this.values = new int[size];
+    }
+
+    @Override
+    int get(int index) {
+      return values[index];
+    }
+
+    @Override
+    void set(int index, int value) {
+      values[index] = value;
+    }
+
+    @Override
+    void fill(int value) {
+      Arrays.fill(values, value);
+    }
+  }
+
+  /**
+   * Represents an array of bytes held on the heap.
+   */
+  private static final class ByteArray extends CellArray {
+    private final byte[] values;
+
+    ByteArray(int size) {
+      this.values = new byte[size];
+    }
+
+    @Override
+    int get(int index) {
+      return values[index];
+    }
+
+    @Override
+    void set(int index, int value) {
+      values[index] = (byte) value;
+    }
+
+    @Override
+    void fill(int value) {
+      Arrays.fill(values, (byte) value);
+    }
+  }
+
+  /**
+   * Represents an array of ints or bytes held in direct buffers, with the elements of each
+   * chunk in the native byte order.
+   */
+  private static final class DirectArray extends CellArray {
+    private final int size;
+    private final int shift;
+    private ByteBuffer[] chunks;
+
+    DirectArray(int size, int shift) {
+      this.size = size;
+      this.shift = shift;
+      long bytes = (long) size << shift;
+      long chunkSize = 1L << CHUNK_SHIFT;
+      this.chunks = new ByteBuffer[(int) ((bytes + chunkSize - 1) >>> CHUNK_SHIFT)];
+      for (int i = 0; i < chunks.length; i++) {
+        long length = Math.min(chunkSize, bytes - i * chunkSize);
+        chunks[i] = ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+      }
+    }
+
+    @Override
+    int get(int index) {
+      long offset = (long) index << shift;
+      ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+      return shift == 0 ? chunk.get((int) (offset & CHUNK_MASK))
+              : chunk.getInt((int) (offset & CHUNK_MASK));
+    }
+
+    @Override
+    void set(int index, int value) {
+      long offset = (long) index << shift;
+      ByteBuffer chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+      if (shift == 0) {
+        chunk.put((int) (offset & CHUNK_MASK), (byte) value);
+      } else {
+        chunk.putInt((int) (offset & CHUNK_MASK), value);
+      }
+    }
+
+    @Override
+    void fill(int value) {
+      for (int i = 0; i < size; i++) {
+        set(i, value);
+      }
+    }
+
+    @Override
+    void free() {
+      if (chunks == null) {
+        return;
+      }
+      ByteBuffer[] freed = chunks;
+      chunks = null;
+      for (ByteBuffer chunk : freed) {
+        BufferCleaner.free(chunk);
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package dungeon;
+
+/**
+ * Represents the directions in which a player can move in the dungeon. The order of the
+ * directions matches the direction indexes used by the dungeon grid, so the ordinal of a
+ * direction can be used to index the door bits and neighbours of a location.
+ */
+public enum Direction {
+  NORTH("North"),
+  EAST("East"),
+  SOUTH("South"),
+  WEST("West");
+
+  private static final Direction[] VALUES = values();
+  private final String name;
+
+  Direction(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the name of the direction as used in the game descriptions.
+   *
+   * @return the name of the direction
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the bit that marks an open door in this direction within the door bitmask of a
+   * location.
+   *
+   * @return the door bit for the direction
+   */
+  public int doorBit() {
+    return 1 << ordinal();
+  }
+
+  /**
+   * Gets the direction opposite to this direction.
+   *
+   * @return the opposite direction
+   */
+  public Direction opposite() {
+    return VALUES[(ordinal() + 2) & 3];
+  }
+
+  /**
+   * Gets the direction with the given name.
+   *
+   * @param name the name of the direction i.e. North, East, South or West
+   * @return the direction with the given name or null if no direction has that name
+   */
+  public static Direction fromName(String name) {
+    for (Direction d : VALUES) {
+      if (d.name.equals(name)) {
+        return d;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,80 @@
+package dungeon;
+
+/**
+ * Represents a disjoint-set forest over the cell ids of a dungeon grid. Each cell starts in its
+ * own set and sets are merged using union by rank, while lookups compress the path to the root
+ * so that both operations run in near constant amortized time. The class is kept package private
+ * as it will be used only within the dungeon model package.
+ */
+final class DisjointSet {
+  private final int[] parent;
+  private final byte[] rank;
+
+  /**
+   * Creates a forest in which each of the given number of elements is in its own set.
+   *
+   * @param size the no. of elements in the forest
+   */
+  DisjointSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size of the disjoint set cannot be negative.");
+    }
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    reset();
+  }
+
+  /**
+   * Puts every element back in its own set, so the forest can be reused without allocating.
+   */
+  void reset() {
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+      rank[i] = 0;
+    }
+  }
+
+  /**
+   * Finds the representative of the set that contains the given element.
+   *
+   * @param x the element to look up
+   * @return the root element of the set containing x
+   */
+  int find(int x) {
+    int root = x;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    //point every element on the path directly to the root
+    while (parent[x] != root) {
+      int next = parent[x];
+      parent[x] = root;
+      x = next;
+    }
+    return root;
+  }
+
+  /**
+   * Merges the sets containing the two elements.
+   *
+   * @param a the first element
+   * @param b the second element
+   * @return true if the sets were merged, false if both elements were already in the same set
+   */
+  boolean union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB) {
+      return false;
+    }
+    if (rank[rootA] < rank[rootB]) {
+      parent[rootA] = rootB;
+    } else if (rank[rootA] > rank[rootB]) {
+      parent[rootB] = rootA;
+    } else {
+      parent[rootB] = rootA;
+      rank[rootA]++;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+package dungeon;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents the paths of a dungeon whose doors never change as a read only list that is read
+ * from the doors as it goes, instead of holding an object per path. Every path is listed once,
+ * from the location on its west or north side, in the order of the cell ids. The no. of paths
+ * before each block of 2^BLOCK_SHIFT locations is counted once when the list is created, so
+ * getting a path by its index searches the blocks and then reads at most one block of doors,
+ * while iterating over the list reads the doors of each location once. The counts are kept
+ * unsigned, as a dungeon of up to 2^31 - 1 locations can have more paths than an int can count;
+ * a list of that many paths reports Integer.MAX_VALUE as its size, as lists do, and can still be
+ * iterated over to its end. The class is kept package private as it will be used only within the
+ * dungeon model package.
+ */
+final class DoorEdgeList extends AbstractList<Edge> {
+  private static final int BLOCK_SHIFT = 12;
+  private static final int PATH_DOORS = Direction.EAST.doorBit() | Direction.SOUTH.doorBit();
+
+  private final Dungeon dungeon;
+  private final CellArray blockStarts;
+  private final int blockCount;
+  private final long pathCount;
+
+  /**
+   * Creates the list of the paths of a dungeon, counting the paths of every block of locations.
+   *
+   * @param dungeon the dungeon, whose doors never change
+   * @param offHeap true to keep the counts outside the heap
+   */
+  DoorEdgeList(Dungeon dungeon, boolean offHeap) {
+    this.dungeon = dungeon;
+    int cellCount = dungeon.getGrid().getCellCount();
+    this.blockCount = ((cellCount - 1) >>> BLOCK_SHIFT) + 1;
+    this.blockStarts = CellArray.ofInts(blockCount, offHeap);
+    long count = 0;
+    for (int loc = 0; loc < cellCount; loc++) {
+      if ((loc & ((1 << BLOCK_SHIFT) - 1)) == 0) {
+        blockStarts.set(loc >>> BLOCK_SHIFT, (int) count);
+      }
+      count += Integer.bitCount(dungeon.getDoors(loc) & PATH_DOORS);
+    }
+    this.pathCount = count;
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(pathCount, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public Edge get(int index) {
+    if (index < 0 || index >= pathCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    //find the last block that starts at or before the path
+    int low = 0;
+    int high = blockCount - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (Integer.toUnsignedLong(blockStarts.get(mid)) <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    long remaining = index - Integer.toUnsignedLong(blockStarts.get(low));
+    for (int loc = low << BLOCK_SHIFT; ; loc++) {
+      int doors = dungeon.getDoors(loc);
+      if ((doors & Direction.EAST.doorBit()) != 0 && remaining-- == 0) {
+        return path(loc, DungeonGrid.EAST);
+      }
+      if ((doors & Direction.SOUTH.doorBit()) != 0 && remaining-- == 0) {
+        return path(loc, DungeonGrid.SOUTH);
+      }
+    }
+  }
+
+  @Override
+  public Iterator<Edge> iterator() {
+    return new Iterator<Edge>() {
+      private long read;
+      private int loc;
+      private boolean southNext;
+
+      @Override
+      public boolean hasNext() {
+        return read < pathCount;
+      }
+
+      @Override
+      public Edge next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        while (true) {
+          int doors = dungeon.getDoors(loc);
+          if (!southNext) {
+            southNext = true;
+            if ((doors & Direction.EAST.doorBit()) != 0) {
+              read++;
+              return path(loc, DungeonGrid.EAST);
+            }
+          }
+          southNext = false;
+          if ((doors & Direction.SOUTH.doorBit()) != 0) {
+            read++;
+            return path(loc++, DungeonGrid.SOUTH);
+          }
+          loc++;
+        }
+      }
+    };
+  }
+
+  private Edge path(int loc, int direction) {
+    return new DungeonEdge(loc, dungeon.getGrid().neighbour(loc, direction));
+  }
+
+  /**
+   * Frees the counts that the list holds outside the heap, after which it cannot be used.
+   */
+  void free() {
+    blockStarts.free();
+  }
+}
@@ -23,10 +23,10 @@ interface Dungeon {
    *
    * @param p         the player that is being moved
    * @param direction the direction in which the player is to be moved
-   * @return 'Invalid' if the player cannot move in given direction or string to indicate that
-   *          player has moved successfully to a new location.
+   * @return BLOCKED if the player cannot move in given direction, otherwise MOVED or REACHED_END
+   *          if the player has moved successfully to a new location
    */
-  String move(Player p, String direction);
+  MoveOutcome move(Player p, Direction direction);
 
   /**
    * picks the treasure if it exists at the current location of the player.
@@ -42,41 +42,120 @@ interface Dungeon {
    */
   List<Edge> getEdges();
 
+  /**
+   * Finds a shortest route between 2 locations of the dungeon.
+   *
+   * @param from the cell id of the location where the route starts
+   * @param to   the cell id of the location where the route ends
+   * @return the directions to move in, in order, which is empty if the locations are the same,
+   *          or null if there is no route between them
+   */
+  List<Direction> shortestPath(int from, int to);
+
+  /**
+   * Gets the no. of moves from a location to the end location.
+   *
+   * @param loc the cell id of the location
+   * @return the no. of moves or -1 if the end cannot be reached
+   */
+  int getExitDistance(int loc);
+
+  /**
+   * Gets the direction of the first move of a shortest route from a location to the end.
+   *
+   * @param loc the cell id of the location
+   * @return the direction or null at the end location
+   */
+  Direction getExitDirection(int loc);
+
+  /**
+   * Opens the passage between a location and its neighbour in the given direction.
+   *
+   * @param loc       the cell id of the location
+   * @param direction the direction of the neighbour
+   * @return true if the passage was opened, false if it was already open
+   * @throws IllegalStateException if the passages of the dungeon cannot be changed
+   */
+  boolean openPassage(int loc, Direction direction);
+
+  /**
+   * Closes the passage between a location and its neighbour in the given direction, unless
+   * that would leave some locations unreachable.
+   *
+   * @param loc       the cell id of the location
+   * @param direction the direction of the neighbour
+   * @return true if the passage was closed, false if it was already closed
+   * @throws IllegalStateException if closing the passage would disconnect the dungeon, or if
+   *                               the passages of the dungeon cannot be changed
+   */
+  boolean closePassage(int loc, Direction direction);
+
+  /**
+   * The grid of locations in the dungeon, used to convert cell ids to location strings.
+   *
+   * @return the grid of the dungeon
+   */
+  DungeonGrid getGrid();
+
   /**
    * The start location from where the player will enter the dungeon.
    *
-   * @return the cave location from where the player can enter the dungeon
+   * @return the cell id of the cave from where the player can enter the dungeon
    */
-  String getStartLocation();
+  int getStartLocation();
 
   /**
    * The end location from where the player will exit the dungeon.
    *
-   * @return the cave location from where the player can exit the dungeon
+   * @return the cell id of the cave from where the player can exit the dungeon
    */
-  String getEndLocation();
+  int getEndLocation();
+
+  /**
+   * Gets the open doors of a location.
+   *
+   * @param loc the cell id of the input location, which should exist in the dungeon
+   * @return the bitmask of open doors, with the bit given by Direction.doorBit set for each
+   *          direction in which the door is open
+   */
+  int getDoors(int loc);
+
+  /**
+   * Gets the treasure that exists at a location.
+   *
+   * @param loc the cell id of the input location, which should exist in the dungeon
+   * @return the packed treasure word of the location
+   */
+  int getTreasure(int loc);
 
   /**
    * Gets the type of location i.e. Cave or Tunnel for input  location.
    *
-   * @param loc the input location
+   * @param loc the cell id of the input location
    * @return the type of location i.e. Cave or Tunnel
    */
-  String getLocationType(String loc);
+  String getLocationType(int loc);
 
   /**
    * Gets the description of treasure that exists at the given location.
    *
-   * @param loc the input location
+   * @param loc the cell id of the input location
    * @return the description of treasure at the location
    */
-  String getLocationTreasure(String loc);
+  String getLocationTreasure(int loc);
 
   /**
    * Gets the next possible moves a player can take from the given location.
    *
-   * @param loc the input location
+   * @param loc the cell id of the input location
    * @return the next possible moves
    */
-  String getNextPossibleMoves(String loc);
+  String getNextPossibleMoves(int loc);
+
+  /**
+   * Frees the memory that the dungeon holds outside the heap, after which the dungeon cannot be
+   * used. Dungeons held on the heap have nothing to free. Closing is not thread safe, and the
+   * dungeon must not be closed while another thread is using it.
+   */
+  void close();
 }
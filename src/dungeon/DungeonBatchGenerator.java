@@ -0,0 +1,104 @@
+package dungeon;
+
+import randoms.Randomizer;
+import randoms.SplittableRandomGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates many dungeon games at once by building them concurrently on a fork-join pool. Each
+ * game gets its own randomizer, split in order from a randomizer seeded with the batch seed
+ * before any game is built, so a batch generated with the same seed always contains the same
+ * dungeons no matter how many threads build it.
+ */
+public class DungeonBatchGenerator {
+  private static final int SEQUENTIAL_THRESHOLD = 1;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a batch generator that builds the dungeons on the common fork-join pool.
+   */
+  public DungeonBatchGenerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a batch generator that builds the dungeons on the given pool.
+   *
+   * @param pool the fork-join pool used to build the dungeons
+   */
+  public DungeonBatchGenerator(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Generates a game for each of the given configurations.
+   *
+   * @param configs the configurations of the dungeons to generate
+   * @param seed    the seed from which the randomizer of every game is split
+   * @return the games in the same order as their configurations
+   */
+  public List<GameModel> generate(List<DungeonConfig> configs, long seed) {
+    if (configs == null) {
+      throw new IllegalArgumentException("Configurations cannot be null.");
+    }
+    DungeonConfig[] input = configs.toArray(new DungeonConfig[0]);
+    for (DungeonConfig c : input) {
+      if (c == null) {
+        throw new IllegalArgumentException("Configuration cannot be null.");
+      }
+    }
+    Randomizer root = new SplittableRandomGenerator(seed);
+    Randomizer[] streams = new Randomizer[input.length];
+    for (int i = 0; i < input.length; i++) {
+      streams[i] = root.split();
+    }
+    GameModel[] output = new GameModel[input.length];
+    pool.invoke(new GenerateTask(input, streams, output, 0, input.length));
+    return new ArrayList<>(Arrays.asList(output));
+  }
+
+  /**
+   * Builds the games for a range of the configurations, splitting the range in half until it
+   * is small enough to build on the current thread.
+   */
+  private static final class GenerateTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final DungeonConfig[] input;
+    private final Randomizer[] streams;
+    private final GameModel[] output;
+    private final int from;
+    private final int to;
+
+    GenerateTask(DungeonConfig[] input, Randomizer[] streams, GameModel[] output, int from,
+                 int to) {
+      this.input = input;
+      this.streams = streams;
+      this.output = output;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          output[i] = new DungeonGame(input[i], streams[i]);
+        }
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(new GenerateTask(input, streams, output, from, mid),
+                new GenerateTask(input, streams, output, mid, to));
+      }
+    }
+  }
+}
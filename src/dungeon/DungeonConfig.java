@@ -0,0 +1,142 @@
+package dungeon;
+
+/**
+ * Represents the configuration of a dungeon i.e. its dimensions and the properties that are
+ * input by the user when creating the dungeon. The configuration is immutable so it can be
+ * shared between games that are generated concurrently.
+ */
+public final class DungeonConfig {
+  private final int rowCount;
+  private final int colCount;
+  private final int degOfInterconnectivity;
+  private final boolean isWrap;
+  private final int percentCavesForTreasure;
+  private final int minTerminalDistance;
+  private final TreasurePlacement treasurePlacement;
+  private final boolean lazyTreasure;
+
+  /**
+   * Creates the configuration of a dungeon.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output
+   *                                minimum spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   */
+  public DungeonConfig(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                       int percentCavesForTreasure) {
+    this(rowCount, colCount, degOfInterconnectivity, isWrap, percentCavesForTreasure,
+            MasterDungeon.DEFAULT_MIN_TERMINAL_DISTANCE);
+  }
+
+  /**
+   * Creates the configuration of a dungeon, where the start and end locations are at least the
+   * given no. of moves apart.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output
+   *                                minimum spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   * @param minTerminalDistance     the minimum no. of moves between the start and end location
+   */
+  public DungeonConfig(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                       int percentCavesForTreasure, int minTerminalDistance) {
+    this(rowCount, colCount, degOfInterconnectivity, isWrap, percentCavesForTreasure,
+            minTerminalDistance, TreasurePlacement.UNIFORM);
+  }
+
+  /**
+   * Creates the configuration of a dungeon, where the start and end locations are at least the
+   * given no. of moves apart and the caves with treasure are chosen by the given policy.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output
+   *                                minimum spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   * @param minTerminalDistance     the minimum no. of moves between the start and end location
+   * @param treasurePlacement       the policy used to choose the caves with treasure
+   */
+  public DungeonConfig(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                       int percentCavesForTreasure, int minTerminalDistance,
+                       TreasurePlacement treasurePlacement) {
+    this(rowCount, colCount, degOfInterconnectivity, isWrap, percentCavesForTreasure,
+            minTerminalDistance, treasurePlacement, false);
+  }
+
+  /**
+   * Creates the configuration of a dungeon, where the start and end locations are at least the
+   * given no. of moves apart. With lazy treasure, the treasure of each cave is derived from the
+   * seed of the dungeon when the cave is first looked at instead of being assigned when the
+   * dungeon is created, so each cave holds treasure with the given percentage as its
+   * probability and the placement policy is not used.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output
+   *                                minimum spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   * @param minTerminalDistance     the minimum no. of moves between the start and end location
+   * @param treasurePlacement       the policy used to choose the caves with treasure
+   * @param lazyTreasure            true if the treasure is derived on demand
+   */
+  public DungeonConfig(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                       int percentCavesForTreasure, int minTerminalDistance,
+                       TreasurePlacement treasurePlacement, boolean lazyTreasure) {
+    if (treasurePlacement == null) {
+      throw new IllegalArgumentException("Treasure placement cannot be null.");
+    }
+    this.rowCount = rowCount;
+    this.colCount = colCount;
+    this.degOfInterconnectivity = degOfInterconnectivity;
+    this.isWrap = isWrap;
+    this.percentCavesForTreasure = percentCavesForTreasure;
+    this.minTerminalDistance = minTerminalDistance;
+    this.treasurePlacement = treasurePlacement;
+    this.lazyTreasure = lazyTreasure;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColCount() {
+    return colCount;
+  }
+
+  public int getDegOfInterconnectivity() {
+    return degOfInterconnectivity;
+  }
+
+  public boolean isWrap() {
+    return isWrap;
+  }
+
+  public int getPercentCavesForTreasure() {
+    return percentCavesForTreasure;
+  }
+
+  public int getMinTerminalDistance() {
+    return minTerminalDistance;
+  }
+
+  public TreasurePlacement getTreasurePlacement() {
+    return treasurePlacement;
+  }
+
+  public boolean isLazyTreasure() {
+    return lazyTreasure;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%dX%d, interconnectivity %d, %s, %d%% treasure", rowCount, colCount,
+            degOfInterconnectivity, isWrap ? "wrapping" : "non-wrapping", percentCavesForTreasure);
+  }
+}
@@ -0,0 +1,164 @@
+package dungeon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves dungeons to and opens dungeons from a compact binary file. The file starts with a header
+ * of 8 big-endian ints: a magic number, the format version, the no. of rows and columns, a flag
+ * word whose lowest bit is set for a wrapping dungeon, the cell ids of the start and end location
+ * and a reserved word. The header is followed by the door section, which holds the bitmask of
+ * open doors of each location in one byte, and then, aligned to 4 bytes, by the treasure section,
+ * which holds the packed treasure word of each location in one int.
+ *
+ * <p>Opened dungeons are played directly off a read only memory mapping of the file, so even
+ * very large dungeons open after reading only the header. The doors of each location are checked
+ * to match those of their neighbours when the location is first read, or all at once when the
+ * file is opened for verification. Treasure picked up in an opened dungeon is recorded in memory
+ * and is never written back to the file, so files on read only media can be opened as well.
+ */
+public final class DungeonFile {
+  static final int MAGIC = 0x44554E47;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  private static final int WRAP_FLAG = 1;
+  private static final int BLOCK_SIZE = 1 << 16;
+
+  private DungeonFile() {
+  }
+
+  /**
+   * Saves the dungeon of a game, along with the treasure that is left in it, to a file.
+   *
+   * @param game the game whose dungeon is to be saved
+   * @param path the file to write, which is replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(GameModel game, Path path) throws IOException {
+    if (!(game instanceof DungeonGame)) {
+      throw new IllegalArgumentException("Only dungeon games can be saved.");
+    }
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    Dungeon d = ((DungeonGame) game).getDungeon();
+    DungeonGrid grid = d.getGrid();
+    int cellCount = grid.getCellCount();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+      block.putInt(MAGIC).putInt(VERSION).putInt(grid.getRowCount()).putInt(grid.getColCount())
+              .putInt(grid.isWrap() ? WRAP_FLAG : 0).putInt(d.getStartLocation())
+              .putInt(d.getEndLocation()).putInt(0);
+      for (int loc = 0; loc < cellCount; loc++) {
+        if (!block.hasRemaining()) {
+          drain(channel, block);
+        }
+        block.put((byte) d.getDoors(loc));
+      }
+      while (block.position() % 4 != 0) {
+        block.put((byte) 0);
+      }
+      for (int loc = 0; loc < cellCount; loc++) {
+        if (block.remaining() < 4) {
+          drain(channel, block);
+        }
+        block.putInt(d.getTreasure(loc));
+      }
+      drain(channel, block);
+    }
+  }
+
+  /**
+   * Opens a saved dungeon as a new game. No player exists in the game until one is created. Only
+   * the header and the sizes of the sections are checked, so the file opens in constant time;
+   * the doors of a location are checked when it is first read.
+   *
+   * @param path the file to open
+   * @return the game played in the saved dungeon
+   * @throws IOException if the file cannot be read or is not a valid dungeon file
+   */
+  public static GameModel open(Path path) throws IOException {
+    return open(path, false);
+  }
+
+  /**
+   * Opens a saved dungeon as a new game, optionally checking the doors of every location before
+   * the game is returned. Verifying reads the whole door section, so it takes time in proportion
+   * to the no. of locations.
+   *
+   * @param path   the file to open
+   * @param verify true to check the doors of every location while opening the file
+   * @return the game played in the saved dungeon
+   * @throws IOException if the file cannot be read or is not a valid dungeon file
+   */
+  public static GameModel open(Path path, boolean verify) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        throw new IOException("File is too small to be a dungeon file.");
+      }
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt(0) != MAGIC) {
+        throw new IOException("File is not a dungeon file.");
+      }
+      if (header.getInt(4) != VERSION) {
+        throw new IOException("Unsupported dungeon file version " + header.getInt(4) + ".");
+      }
+      DungeonGrid grid;
+      try {
+        grid = new DungeonGrid(header.getInt(8), header.getInt(12),
+                (header.getInt(16) & WRAP_FLAG) != 0);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Dungeon file has invalid dimensions.", e);
+      }
+      int startLocation = header.getInt(20);
+      int endLocation = header.getInt(24);
+      int cellCount = grid.getCellCount();
+      if (startLocation < 0 || startLocation >= cellCount || endLocation < 0
+              || endLocation >= cellCount) {
+        throw new IOException("Dungeon file has invalid start or end location.");
+      }
+      long treasureOffset = treasureOffset(cellCount);
+      long treasureSize = (long) cellCount * 4;
+      if (channel.size() < treasureOffset + treasureSize) {
+        throw new IOException("Dungeon file is truncated.");
+      }
+      ByteBuffer doors = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cellCount);
+      if (verify) {
+        for (int loc = 0; loc < cellCount; loc++) {
+          if (!MappedDungeon.hasMatchingDoors(grid, doors, loc)) {
+            throw new IOException("Dungeon file has a door at cell " + loc
+                    + " that does not match its neighbour.");
+          }
+        }
+      }
+      long chunkSize = 1L << MappedDungeon.CHUNK_SHIFT;
+      ByteBuffer[] treasure = new ByteBuffer[(int) ((treasureSize + chunkSize - 1) / chunkSize)];
+      for (int i = 0; i < treasure.length; i++) {
+        long offset = i * chunkSize;
+        treasure[i] = channel.map(FileChannel.MapMode.READ_ONLY, treasureOffset + offset,
+                Math.min(chunkSize, treasureSize - offset));
+      }
+      return new DungeonGame(new MappedDungeon(grid, startLocation, endLocation, doors,
+              treasure));
+    }
+  }
+
+  private static long treasureOffset(int cellCount) {
+    return (HEADER_SIZE + (long) cellCount + 3) & ~3L;
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer block) throws IOException {
+    block.flip();
+    while (block.hasRemaining()) {
+      channel.write(block);
+    }
+    block.clear();
+  }
+}
@@ -2,16 +2,19 @@ package dungeon;
 
 import randoms.Randomizer;
 
-import java.util.ArrayList;
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * DungeonGame represents the class that will perform all the operations in the dungeon
  * game. This model is responsible for creating the dungeon and player and adding the player
  * to the dungeon and later on provides the interactivity between the controller and other
- * concrete classes in the model.
+ * concrete classes in the model. Games played in a dungeon generated outside the heap should be
+ * closed once they are over, which frees the memory of the dungeon straight away.
  */
-public class DungeonGame implements GameModel {
+public class DungeonGame implements GameModel, Closeable {
   private final Dungeon d;
   private Player p;
 
@@ -32,30 +35,130 @@ public class DungeonGame implements GameModel {
             percentCavesForTreasure, r);
   }
 
+  /**
+   * Creates an instance of a game that will create the dungeon, where the start and end locations
+   * are at least the given no. of moves apart.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output
+   *                                minimum spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   * @param minTerminalDistance     the minimum no. of moves between the start and end location
+   * @param r                       the randomizer object
+   */
+  public DungeonGame(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                     int percentCavesForTreasure, int minTerminalDistance, Randomizer r) {
+    this.d = new MasterDungeon(rowCount, colCount, degOfInterconnectivity, isWrap,
+            percentCavesForTreasure, minTerminalDistance, r);
+  }
+
+  /**
+   * Creates an instance of a game that will create the dungeon for the given configuration.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   */
+  public DungeonGame(DungeonConfig config, Randomizer r) {
+    if (config == null) {
+      throw new IllegalArgumentException("Configuration cannot be null.");
+    }
+    this.d = new MasterDungeon(config, r);
+  }
+
+  /**
+   * Creates an instance of a game played over a shared dungeon topology. The game records only
+   * the treasure picked up by its player, so any no. of games can share the same topology.
+   *
+   * @param topology the topology of the dungeon
+   */
+  public DungeonGame(DungeonTopology topology) {
+    if (topology == null) {
+      throw new IllegalArgumentException("Topology cannot be null.");
+    }
+    this.d = new SessionDungeon(topology);
+  }
+
+  /**
+   * Creates an instance of a game played in an existing dungeon.
+   *
+   * @param d the dungeon in which the game is played
+   */
+  DungeonGame(Dungeon d) {
+    if (d == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    this.d = d;
+  }
+
+  /**
+   * Gets the dungeon in which the game is played.
+   *
+   * @return the dungeon of the game
+   */
+  Dungeon getDungeon() {
+    return d;
+  }
+
   @Override
   public String getStartLocation() {
-    return d.getStartLocation();
+    return d.getGrid().toLocation(d.getStartLocation());
   }
 
   @Override
   public String getEndLocation() {
-    return d.getEndLocation();
+    return d.getGrid().toLocation(d.getEndLocation());
   }
 
+  /**
+   * Lists the paths of the dungeon as a read only view over the edges of the dungeon, which
+   * names each path as it is read, so that the paths of a dungeon held outside the heap are
+   * never all held on the heap at once.
+   *
+   * @return the paths of the dungeon, each named by the 2 locations it joins
+   */
   @Override
   public List<String> getEdges() {
-    List<String> dungeonPaths = new ArrayList<>();
-    for (Edge e : d.getEdges()) {
-      String s = e.toString();
-      dungeonPaths.add(s);
-    }
-    return dungeonPaths;
+    DungeonGrid grid = d.getGrid();
+    List<Edge> edges = d.getEdges();
+    return new AbstractList<String>() {
+      @Override
+      public String get(int index) {
+        return name(edges.get(index));
+      }
+
+      @Override
+      public int size() {
+        return edges.size();
+      }
+
+      @Override
+      public Iterator<String> iterator() {
+        Iterator<Edge> it = edges.iterator();
+        return new Iterator<String>() {
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          public String next() {
+            return name(it.next());
+          }
+        };
+      }
+
+      private String name(Edge e) {
+        return grid.toLocation(e.getP1()) + "-" + grid.toLocation(e.getP2());
+      }
+    };
   }
 
   @Override
   public void createPlayer() {
     if (this.p == null) {
-      p = new MasterDungeonPlayer(0, 0, 0, "");
+      p = new MasterDungeonPlayer(0, 0, 0, DungeonGrid.NO_CELL);
     } else {
       throw new IllegalStateException("Player is already created for this game.");
     }
@@ -74,7 +177,7 @@ public class DungeonGame implements GameModel {
     if (this.p == null) {
       throw new IllegalStateException("Player does not exist for this game.");
     }
-    return p.getLocation();
+    return d.getGrid().toLocation(p.getLocation());
   }
 
   @Override
@@ -87,7 +190,7 @@ public class DungeonGame implements GameModel {
     if (d.getLocationType(p.getLocation()).equals("Cave")) {
       s += "\nTreasure: " + d.getLocationTreasure(p.getLocation());
     }
-    if (!p.getLocation().equals(d.getEndLocation())) {
+    if (p.getLocation() != d.getEndLocation()) {
       s += "\nNext possible moves: " + d.getNextPossibleMoves(p.getLocation());
     }
     return s;
@@ -107,15 +210,115 @@ public class DungeonGame implements GameModel {
       throw new IllegalStateException("Player does not exist for this game.");
     }
     return String.format("\nCurrent player details: \nLocation: %s\nTreasure: Diamonds- %d, "
-                    + "Sapphires- %d, Rubies- %d", p.getLocation(), p.getDiamondCount(),
-            p.getSapphireCount(), p.getRubyCount());
+                    + "Sapphires- %d, Rubies- %d", d.getGrid().toLocation(p.getLocation()),
+            p.getDiamondCount(), p.getSapphireCount(), p.getRubyCount());
   }
 
   @Override
   public String movePlayerTo(String direction) {
+    if (this.p == null) {
+      throw new IllegalStateException("Player does not exist for this game.");
+    }
+    Direction dir = Direction.fromName(direction);
+    if (dir == null || d.move(p, dir) == MoveOutcome.BLOCKED) {
+      return "Invalid move.";
+    }
+    return "Player moved to Location " + d.getGrid().toLocation(p.getLocation());
+  }
+
+  @Override
+  public MoveOutcome movePlayer(Direction direction) {
     if (this.p == null) {
       throw new IllegalStateException("Player does not exist for this game.");
     }
     return d.move(p, direction);
   }
+
+  @Override
+  public MoveSummary movePlayerAlong(List<Direction> directions, boolean pickTreasure) {
+    if (this.p == null) {
+      throw new IllegalStateException("Player does not exist for this game.");
+    }
+    if (directions == null) {
+      throw new IllegalArgumentException("Directions cannot be null.");
+    }
+    //check every direction before the first move, so an invalid list leaves the player in place
+    for (Direction direction : directions) {
+      if (direction == null) {
+        throw new IllegalArgumentException("Directions cannot contain null.");
+      }
+    }
+    int diamondCount = p.getDiamondCount();
+    int sapphireCount = p.getSapphireCount();
+    int rubyCount = p.getRubyCount();
+    int steps = 0;
+    MoveOutcome outcome = null;
+    for (Direction direction : directions) {
+      outcome = d.move(p, direction);
+      if (outcome == MoveOutcome.BLOCKED) {
+        break;
+      }
+      steps++;
+      if (pickTreasure) {
+        d.pickTreasure(p);
+      }
+      if (outcome == MoveOutcome.REACHED_END) {
+        break;
+      }
+    }
+    return new MoveSummary(steps, d.getGrid().toLocation(p.getLocation()), outcome,
+            p.getDiamondCount() - diamondCount, p.getSapphireCount() - sapphireCount,
+            p.getRubyCount() - rubyCount);
+  }
+
+  @Override
+  public List<Direction> getShortestPath(String from, String to) {
+    int fromCell = toValidCell(from);
+    int toCell = toValidCell(to);
+    List<Direction> path = d.shortestPath(fromCell, toCell);
+    if (path == null) {
+      throw new IllegalStateException("No path exists between " + from + " and " + to + ".");
+    }
+    return path;
+  }
+
+  @Override
+  public int getDistanceToEnd(String location) {
+    return d.getExitDistance(toValidCell(location));
+  }
+
+  @Override
+  public Direction getDirectionToEnd(String location) {
+    return d.getExitDirection(toValidCell(location));
+  }
+
+  @Override
+  public boolean openPassage(String location, Direction direction) {
+    return d.openPassage(toValidCell(location), direction);
+  }
+
+  @Override
+  public boolean closePassage(String location, Direction direction) {
+    return d.closePassage(toValidCell(location), direction);
+  }
+
+  /**
+   * Frees the memory of the dungeon of the game that is held outside the heap, after which the
+   * game cannot be played. Closing a game whose dungeon is held on the heap does nothing.
+   * Closing is not thread safe, and the game must not be closed while another thread is
+   * playing it.
+   */
+  @Override
+  public void close() {
+    d.close();
+  }
+
+  private int toValidCell(String location) {
+    int cell = d.getGrid().toCell(location);
+    if (cell == DungeonGrid.NO_CELL) {
+      throw new IllegalArgumentException("Location Not Found. Please try entering a valid "
+              + "location");
+    }
+    return cell;
+  }
 }
@@ -0,0 +1,199 @@
+package dungeon;
+
+/**
+ * Represents the grid of locations in a dungeon. Every location is identified by a compact int
+ * cell id (row * no. of columns + column) which is used throughout the dungeon model, and this
+ * class converts between cell ids, rows and columns and the location strings shown to the
+ * controller. Neighbouring cells are resolved taking the wrapping of the dungeon into account.
+ * The class is kept package private as it will be used only within the dungeon model package.
+ */
+final class DungeonGrid {
+  static final int NO_CELL = -1;
+  static final int NORTH = 0;
+  static final int EAST = 1;
+  static final int SOUTH = 2;
+  static final int WEST = 3;
+
+  private final int rowCount;
+  private final int colCount;
+  private final boolean isWrap;
+  private final int rowDigits;
+  private final int colDigits;
+
+  /**
+   * Creates the grid for a dungeon of the given dimensions.
+   *
+   * @param rowCount the no. of rows in the dungeon grid
+   * @param colCount the no. of columns in the dungeon grid
+   * @param isWrap   true if the dungeon has paths wrapping type
+   */
+  DungeonGrid(int rowCount, int colCount, boolean isWrap) {
+    if (rowCount <= 0 || colCount <= 0) {
+      throw new IllegalArgumentException("Dimensions of the dungeon grid should be positive.");
+    }
+    if ((long) rowCount * colCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon grid has too many locations.");
+    }
+    this.rowCount = rowCount;
+    this.colCount = colCount;
+    this.isWrap = isWrap;
+    this.rowDigits = String.valueOf(rowCount - 1).length();
+    this.colDigits = String.valueOf(colCount - 1).length();
+  }
+
+  int getRowCount() {
+    return rowCount;
+  }
+
+  int getColCount() {
+    return colCount;
+  }
+
+  int getCellCount() {
+    return rowCount * colCount;
+  }
+
+  boolean isWrap() {
+    return isWrap;
+  }
+
+  int cellId(int row, int col) {
+    return row * colCount + col;
+  }
+
+  int row(int cell) {
+    return cell / colCount;
+  }
+
+  int col(int cell) {
+    return cell % colCount;
+  }
+
+  /**
+   * Gets the cell next to the given cell in the given direction, wrapping around the edges of
+   * the grid for a wrapping dungeon.
+   *
+   * @param cell      the cell id
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   * @return the neighbouring cell id or NO_CELL if the neighbour lies outside the grid
+   */
+  int neighbour(int cell, int direction) {
+    int row = cell / colCount;
+    int col = cell % colCount;
+    switch (direction) {
+      case NORTH:
+        row--;
+        break;
+      case EAST:
+        col++;
+        break;
+      case SOUTH:
+        row++;
+        break;
+      case WEST:
+        col--;
+        break;
+      default:
+        throw new IllegalArgumentException("Invalid direction: " + direction);
+    }
+    if (isWrap) {
+      row = (row + rowCount) % rowCount;
+      col = (col + colCount) % colCount;
+    } else if (row < 0 || row >= rowCount || col < 0 || col >= colCount) {
+      return NO_CELL;
+    }
+    return row * colCount + col;
+  }
+
+  /**
+   * Gets the direction in which the second cell lies next to the first cell.
+   *
+   * @param from the cell id to look from
+   * @param to   the cell id of the neighbouring cell
+   * @return one of NORTH, EAST, SOUTH or WEST, or -1 if the cells are not neighbours
+   */
+  int directionTo(int from, int to) {
+    for (int direction = NORTH; direction <= WEST; direction++) {
+      if (neighbour(from, direction) == to) {
+        return direction;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the bit that marks an open door in the given direction within a door bitmask.
+   *
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   * @return the door bit for the direction
+   */
+  static int doorBit(int direction) {
+    return 1 << direction;
+  }
+
+  /**
+   * Gets the direction opposite to the given direction.
+   *
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   * @return the opposite direction
+   */
+  static int opposite(int direction) {
+    return (direction + 2) & 3;
+  }
+
+  /**
+   * Converts a cell id to the location string shown to the controller. The row and column are
+   * each padded to the no. of digits of the largest row and column, so the location of a cell
+   * in a grid of up to 10 rows and columns is simply its row followed by its column.
+   *
+   * @param cell the cell id
+   * @return the location string or an empty string for NO_CELL
+   */
+  String toLocation(int cell) {
+    if (cell == NO_CELL) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder(rowDigits + colDigits);
+    appendPadded(sb, cell / colCount, rowDigits);
+    appendPadded(sb, cell % colCount, colDigits);
+    return sb.toString();
+  }
+
+  /**
+   * Converts a location string back to its cell id.
+   *
+   * @param location the location string
+   * @return the cell id or NO_CELL if the location does not exist in the grid
+   */
+  int toCell(String location) {
+    if (location == null || location.length() != rowDigits + colDigits) {
+      return NO_CELL;
+    }
+    int row = parseDigits(location, 0, rowDigits);
+    int col = parseDigits(location, rowDigits, location.length());
+    if (row < 0 || row >= rowCount || col < 0 || col >= colCount) {
+      return NO_CELL;
+    }
+    return row * colCount + col;
+  }
+
+  private static void appendPadded(StringBuilder sb, int value, int digits) {
+    String s = String.valueOf(value);
+    for (int i = s.length(); i < digits; i++) {
+      sb.append('0');
+    }
+    sb.append(s);
+  }
+
+  private static int parseDigits(String s, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      char c = s.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+}
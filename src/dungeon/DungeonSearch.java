@@ -0,0 +1,180 @@
+package dungeon;
+
+/**
+ * Represents the breadth first search over the paths of a dungeon. The neighbours of each cell
+ * are read from the passages of the dungeon as the search reaches the cell, so a change to the
+ * doors is seen by the next search without rebuilding anything. For generated dungeons the
+ * passages are an adjacency array of 4 slots per cell, holding the neighbour behind each door,
+ * which is patched in place when a passage is opened or closed. It takes the place of an array
+ * of offsets into a packed array of neighbours, since with at most 4 doors per cell the offsets
+ * are implied by the cell id, and a packed array would have to be shifted on every edit. Every
+ * cell enters a queue at most once per search, so the queues are plain arrays of one slot per
+ * cell that never wrap around. The queues and the visited, distance and parent arrays are
+ * allocated once and reused by every search, with a visit stamp that is bumped per search
+ * instead of clearing the arrays, so repeated searches do not allocate and run in O(V + E).
+ * Shortest routes are found by searching from both ends at once, which visits far fewer cells
+ * than a search from one end, while the distances from the end location to every cell are found
+ * by a single source search in ExitDistanceField. The class is not thread safe and is kept
+ * package private as it will be used only within the dungeon model package.
+ */
+final class DungeonSearch {
+  private final Passages passages;
+  private final CellArray queue;
+  private final CellArray visitStamp;
+  private final CellArray distance;
+  private final CellArray parent;
+  private final CellArray backQueue;
+  private final CellArray backStamp;
+  private final CellArray backDistance;
+  private final CellArray backParent;
+  private int stamp;
+
+  /**
+   * Creates the buffers used by the searches over the passages of a dungeon.
+   *
+   * @param passages  the open paths of the dungeon
+   * @param cellCount the no. of cells of the dungeon
+   */
+  DungeonSearch(Passages passages, int cellCount) {
+    this(passages, cellCount, false);
+  }
+
+  /**
+   * Creates the buffers used by the searches over the passages of a dungeon, either on the heap
+   * or in direct buffers outside the heap.
+   *
+   * @param passages  the open paths of the dungeon
+   * @param cellCount the no. of cells of the dungeon
+   * @param offHeap   true to keep the buffers outside the heap
+   */
+  DungeonSearch(Passages passages, int cellCount, boolean offHeap) {
+    this.passages = passages;
+    this.queue = CellArray.ofInts(cellCount, offHeap);
+    this.visitStamp = CellArray.ofInts(cellCount, offHeap);
+    this.distance = CellArray.ofInts(cellCount, offHeap);
+    this.parent = CellArray.ofInts(cellCount, offHeap);
+    this.backQueue = CellArray.ofInts(cellCount, offHeap);
+    this.backStamp = CellArray.ofInts(cellCount, offHeap);
+    this.backDistance = CellArray.ofInts(cellCount, offHeap);
+    this.backParent = CellArray.ofInts(cellCount, offHeap);
+  }
+
+  /**
+   * Finds a shortest route between 2 cells by searching breadth first from both cells, one whole
+   * level at a time from whichever side has the smaller frontier. Once the two searches meet,
+   * the rest of that level is still checked for a shorter meeting, which makes the route a
+   * shortest one.
+   *
+   * @param from the cell id of the start location
+   * @param to   the cell id of the end location
+   * @return the cell ids along the route, starting with from and ending with to, or null if the
+   *          end cannot be reached
+   */
+  int[] shortestPath(int from, int to) {
+    if (from == to) {
+      return new int[] {from};
+    }
+    nextStamp();
+    visitStamp.set(from, stamp);
+    distance.set(from, 0);
+    parent.set(from, DungeonGrid.NO_CELL);
+    queue.set(0, from);
+    int head = 0;
+    int tail = 1;
+    backStamp.set(to, stamp);
+    backDistance.set(to, 0);
+    backParent.set(to, DungeonGrid.NO_CELL);
+    backQueue.set(0, to);
+    int backHead = 0;
+    int backTail = 1;
+    int best = Integer.MAX_VALUE;
+    int meetFront = DungeonGrid.NO_CELL;
+    int meetBack = DungeonGrid.NO_CELL;
+    while (head < tail && backHead < backTail && best == Integer.MAX_VALUE) {
+      if (tail - head <= backTail - backHead) {
+        int levelEnd = tail;
+        for (; head < levelEnd; head++) {
+          int curr = queue.get(head);
+          for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+            int next = passages.neighbour(curr, direction);
+            if (next == DungeonGrid.NO_CELL) {
+              continue;
+            }
+            if (backStamp.get(next) == stamp
+                    && distance.get(curr) + 1 + backDistance.get(next) < best) {
+              best = distance.get(curr) + 1 + backDistance.get(next);
+              meetFront = curr;
+              meetBack = next;
+            }
+            if (visitStamp.get(next) != stamp) {
+              visitStamp.set(next, stamp);
+              distance.set(next, distance.get(curr) + 1);
+              parent.set(next, curr);
+              queue.set(tail++, next);
+            }
+          }
+        }
+      } else {
+        int levelEnd = backTail;
+        for (; backHead < levelEnd; backHead++) {
+          int curr = backQueue.get(backHead);
+          for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+            int next = passages.neighbour(curr, direction);
+            if (next == DungeonGrid.NO_CELL) {
+              continue;
+            }
+            if (visitStamp.get(next) == stamp
+                    && distance.get(next) + 1 + backDistance.get(curr) < best) {
+              best = distance.get(next) + 1 + backDistance.get(curr);
+              meetFront = next;
+              meetBack = curr;
+            }
+            if (backStamp.get(next) != stamp) {
+              backStamp.set(next, stamp);
+              backDistance.set(next, backDistance.get(curr) + 1);
+              backParent.set(next, curr);
+              backQueue.set(backTail++, next);
+            }
+          }
+        }
+      }
+    }
+    if (best == Integer.MAX_VALUE) {
+      return null;
+    }
+    int[] path = new int[best + 1];
+    int index = distance.get(meetFront);
+    for (int cell = meetFront; cell != DungeonGrid.NO_CELL; cell = parent.get(cell)) {
+      path[index--] = cell;
+    }
+    index = distance.get(meetFront) + 1;
+    for (int cell = meetBack; cell != DungeonGrid.NO_CELL; cell = backParent.get(cell)) {
+      path[index++] = cell;
+    }
+    return path;
+  }
+
+  /**
+   * Frees the buffers that the search holds outside the heap, after which it cannot be used.
+   */
+  void free() {
+    queue.free();
+    visitStamp.free();
+    distance.free();
+    parent.free();
+    backQueue.free();
+    backStamp.free();
+    backDistance.free();
+    backParent.free();
+  }
+
+  private void nextStamp() {
+    if (stamp == Integer.MAX_VALUE) {
+      //stamps are about to repeat, so forget every earlier visit
+      visitStamp.fill(0);
+      backStamp.fill(0);
+      stamp = 0;
+    }
+    stamp++;
+  }
+}
@@ -0,0 +1,130 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+/**
+ * Represents the parts of a dungeon that never change once it is created: its grid, the doors
+ * and initial treasure of every location, and the start and end location. A topology is
+ * immutable and thread safe, so a single topology can be shared by reference between any no. of
+ * games, each of which records only the treasure that its player has picked up. The distances to
+ * the end location are computed once when the topology is created. Route searches all read the
+ * shared doors, while each thread that searches gets its own search buffers on its first search,
+ * so the routes of many games are found at the same time.
+ */
+public final class DungeonTopology {
+  private final DungeonGrid grid;
+  private final byte[] doors;
+  private final int[] treasure;
+  private final int startLocation;
+  private final int endLocation;
+  private final ExitDistanceField exitField;
+  private final ThreadLocal<DungeonSearch> searches;
+
+  /**
+   * Creates the topology of a new dungeon for the given configuration. With lazy treasure, the
+   * treasure of every cave is derived when the topology is created.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   */
+  public DungeonTopology(DungeonConfig config, Randomizer r) {
+    this(createDungeon(config, r));
+  }
+
+  /**
+   * Creates the topology of an existing dungeon, copying its doors and the treasure that is left
+   * in it, so later changes to the dungeon do not affect the topology.
+   *
+   * @param d the dungeon whose topology is created
+   */
+  DungeonTopology(Dungeon d) {
+    if (d == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    this.grid = d.getGrid();
+    int cellCount = grid.getCellCount();
+    this.doors = new byte[cellCount];
+    this.treasure = new int[cellCount];
+    for (int loc = 0; loc < cellCount; loc++) {
+      doors[loc] = (byte) d.getDoors(loc);
+      treasure[loc] = d.getTreasure(loc);
+    }
+    this.startLocation = d.getStartLocation();
+    this.endLocation = d.getEndLocation();
+    //the searches of each thread hold only the doors, so a dropped topology is not kept alive
+    Passages passages = new DoorPassages(grid, doors);
+    this.exitField = new ExitDistanceField(grid, passages, endLocation);
+    this.searches = ThreadLocal.withInitial(() -> new DungeonSearch(passages, cellCount));
+  }
+
+  private static Dungeon createDungeon(DungeonConfig config, Randomizer r) {
+    if (config == null) {
+      throw new IllegalArgumentException("Configuration cannot be null.");
+    }
+    return new MasterDungeon(config, r);
+  }
+
+  DungeonGrid getGrid() {
+    return grid;
+  }
+
+  int getDoors(int loc) {
+    return doors[loc];
+  }
+
+  int getTreasure(int loc) {
+    return treasure[loc];
+  }
+
+  int getStartLocation() {
+    return startLocation;
+  }
+
+  int getEndLocation() {
+    return endLocation;
+  }
+
+  /**
+   * Gets the distance from every location to the end location. The field is never changed
+   * after the topology is created, so it can be read by many games at once.
+   *
+   * @return the exit distance field of the dungeon
+   */
+  ExitDistanceField getExitField() {
+    return exitField;
+  }
+
+  /**
+   * Finds the locations along a shortest route between 2 locations, using the search buffers of
+   * the calling thread.
+   *
+   * @param from the cell id of the first location
+   * @param to   the cell id of the last location
+   * @return the cell ids of the locations on the route, including both ends, or null if there
+   *          is no route
+   */
+  int[] route(int from, int to) {
+    return searches.get().shortestPath(from, to);
+  }
+
+  /**
+   * Represents the open paths given by the door bitmasks of a topology.
+   */
+  private static final class DoorPassages implements Passages {
+    private final DungeonGrid grid;
+    private final byte[] doors;
+
+    DoorPassages(DungeonGrid grid, byte[] doors) {
+      this.grid = grid;
+      this.doors = doors;
+    }
+
+    @Override
+    public int neighbour(int cell, int direction) {
+      if ((doors[cell] & DungeonGrid.doorBit(direction)) == 0) {
+        return DungeonGrid.NO_CELL;
+      }
+      return grid.neighbour(cell, direction);
+    }
+  }
+}
@@ -10,15 +10,15 @@ interface Edge {
   /**
    * Gets the p1 vertex of the edge.
    *
-   * @return the vertex of the edge
+   * @return the cell id of the vertex of the edge
    */
-  String getP1();
+  int getP1();
 
   /**
    * Gets the p2 vertex of the edge.
    *
-   * @return the vertex of the edge
+   * @return the cell id of the vertex of the edge
    */
-  String getP2();
+  int getP2();
 
 }
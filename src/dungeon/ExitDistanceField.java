@@ -0,0 +1,345 @@
+package dungeon;
+
+import java.util.Arrays;
+
+/**
+ * Represents the no. of moves from every location of a dungeon to its end location, together
+ * with the direction of the first move of a shortest route to the end. The field is built with a
+ * single breadth first search from the end, after which both queries are array lookups. When a
+ * path is opened or closed, only the locations whose distance can change are searched again.
+ * The first moves of the shortest routes form a spanning tree of every location that can reach
+ * the end, which also tells whether closing a path would cut the dungeon in 2. An edit takes
+ * time in proportion to the locations it affects rather than to the whole dungeon, but that is
+ * not sub-linear in the worst case: closing a path near the end can change the distance of most
+ * locations, and the check for a split walks the smaller side of the cut, which is up to half of
+ * the dungeon. A dynamic connectivity structure such as Euler tour trees would answer the check
+ * in polylogarithmic time, but the exact distances would still have to be searched again, so it
+ * is not used. The field reads the passages it is given as it goes, so the doors must be updated
+ * before the field is told about a change. The class is not thread safe and is kept package
+ * private as it will be used only within the dungeon model package.
+ */
+final class ExitDistanceField {
+  static final int UNREACHABLE = -1;
+  static final int NO_DIRECTION = -1;
+
+  private final DungeonGrid grid;
+  private final Passages passages;
+  private final int end;
+  private final boolean offHeap;
+  private final CellArray distance;
+  private final CellArray next;
+  private final CellArray queue;
+  private CellArray affected;
+  private CellArray mark;
+  private long[] seeds = new long[16];
+  private int stamp;
+
+  /**
+   * Builds the field for a dungeon.
+   *
+   * @param grid     the grid of the dungeon
+   * @param passages the open paths of the dungeon
+   * @param end      the cell id of the end location
+   */
+  ExitDistanceField(DungeonGrid grid, Passages passages, int end) {
+    this(grid, passages, end, false);
+  }
+
+  /**
+   * Builds the field for a dungeon, keeping its buffers either on the heap or in direct buffers
+   * outside the heap.
+   *
+   * @param grid     the grid of the dungeon
+   * @param passages the open paths of the dungeon
+   * @param end      the cell id of the end location
+   * @param offHeap  true to keep the buffers outside the heap
+   */
+  ExitDistanceField(DungeonGrid grid, Passages passages, int end, boolean offHeap) {
+    this.grid = grid;
+    this.passages = passages;
+    this.end = end;
+    this.offHeap = offHeap;
+    this.distance = CellArray.ofInts(grid.getCellCount(), offHeap);
+    this.next = CellArray.ofBytes(grid.getCellCount(), offHeap);
+    this.queue = CellArray.ofInts(grid.getCellCount(), offHeap);
+    distance.fill(UNREACHABLE);
+    next.fill(NO_DIRECTION);
+    distance.set(end, 0);
+    queue.set(0, end);
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int curr = queue.get(head);
+      for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+        int cell = passages.neighbour(curr, direction);
+        if (cell != DungeonGrid.NO_CELL && distance.get(cell) == UNREACHABLE) {
+          distance.set(cell, distance.get(curr) + 1);
+          next.set(cell, DungeonGrid.opposite(direction));
+          queue.set(tail++, cell);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the no. of moves from a location to the end location.
+   *
+   * @param cell the cell id of the location
+   * @return the no. of moves or UNREACHABLE if the end cannot be reached
+   */
+  int distance(int cell) {
+    return distance.get(cell);
+  }
+
+  /**
+   * Gets the direction of the first move of a shortest route from a location to the end.
+   *
+   * @param cell the cell id of the location
+   * @return one of NORTH, EAST, SOUTH or WEST, or NO_DIRECTION at the end location and at the
+   *          locations from where the end cannot be reached
+   */
+  int nextDirection(int cell) {
+    return next.get(cell);
+  }
+
+  /**
+   * Updates the field after the path behind a door has been opened. Only the locations that
+   * the new path brings closer to the end are visited.
+   *
+   * @param cell      the cell id of a location on one side of the path
+   * @param direction the direction of the path from that location
+   */
+  void pathOpened(int cell, int direction) {
+    int other = grid.neighbour(cell, direction);
+    if (improves(cell, other)) {
+      distance.set(other, distance.get(cell) + 1);
+      next.set(other, DungeonGrid.opposite(direction));
+      propagate(other);
+    } else if (improves(other, cell)) {
+      distance.set(cell, distance.get(other) + 1);
+      next.set(cell, direction);
+      propagate(cell);
+    }
+  }
+
+  /**
+   * Checks whether closing an open path would leave some locations without any route to the
+   * end. If no shortest route uses the path, the spanning tree of routes is untouched and the
+   * answer is no. Otherwise the 2 halves of the tree on either side of the path are walked in
+   * turns until the smaller one has been walked completely, and its doors are checked for
+   * another path into the other half. The check therefore takes time in proportion to the
+   * smaller half, however large the dungeon is.
+   *
+   * @param cell      the cell id of a location on one side of the path
+   * @param direction the direction of the path from that location
+   * @return true if closing the path would split the dungeon
+   */
+  boolean wouldDisconnect(int cell, int direction) {
+    int other = grid.neighbour(cell, direction);
+    int child;
+    if (next.get(cell) == direction) {
+      child = cell;
+    } else if (next.get(other) == DungeonGrid.opposite(direction)) {
+      child = other;
+    } else {
+      return false;
+    }
+    int parent = child == cell ? other : cell;
+    if (affected == null) {
+      affected = CellArray.ofInts(grid.getCellCount(), offHeap);
+      mark = CellArray.ofInts(grid.getCellCount(), offHeap);
+    }
+    nextStamp();
+    int childStamp = stamp;
+    nextStamp();
+    int parentStamp = stamp;
+    //the child half is walked in affected and the parent half in queue
+    mark.set(child, childStamp);
+    affected.set(0, child);
+    int childHead = 0;
+    int childTail = 1;
+    mark.set(parent, parentStamp);
+    queue.set(0, parent);
+    int parentHead = 0;
+    int parentTail = 1;
+    while (childHead < childTail && parentHead < parentTail) {
+      childTail = walkTree(affected.get(childHead++), child, affected, childTail, childStamp);
+      parentTail = walkTree(queue.get(parentHead++), child, queue, parentTail, parentStamp);
+    }
+    CellArray smaller = childHead == childTail ? affected : queue;
+    int smallerCount = childHead == childTail ? childTail : parentTail;
+    int smallerStamp = childHead == childTail ? childStamp : parentStamp;
+    for (int i = 0; i < smallerCount; i++) {
+      int curr = smaller.get(i);
+      for (int d = DungeonGrid.NORTH; d <= DungeonGrid.WEST; d++) {
+        int cell2 = passages.neighbour(curr, d);
+        if (cell2 != DungeonGrid.NO_CELL && !isClosingPath(curr, d, child)
+                && mark.get(cell2) != smallerStamp) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds the unvisited neighbours of a location along the spanning tree to a walk, leaving out
+   * the tree path between the given child and its parent.
+   */
+  private int walkTree(int curr, int child, CellArray walk, int tail, int walkStamp) {
+    for (int d = DungeonGrid.NORTH; d <= DungeonGrid.WEST; d++) {
+      int cell = passages.neighbour(curr, d);
+      if (cell != DungeonGrid.NO_CELL && mark.get(cell) != walkStamp
+              && (next.get(curr) == d || next.get(cell) == DungeonGrid.opposite(d))
+              && !isClosingPath(curr, d, child)) {
+        mark.set(cell, walkStamp);
+        walk.set(tail++, cell);
+      }
+    }
+    return tail;
+  }
+
+  /**
+   * Checks whether a door is the one of the tree path between the given child and its parent,
+   * from either side.
+   */
+  private boolean isClosingPath(int curr, int direction, int child) {
+    return (curr == child && next.get(child) == direction)
+            || (next.get(child) != NO_DIRECTION && grid.neighbour(curr, direction) == child
+            && DungeonGrid.opposite(direction) == next.get(child));
+  }
+
+  /**
+   * Updates the field after the path behind a door has been closed. If no shortest route used
+   * the path nothing changes, otherwise only the locations whose routes went through it are
+   * searched again, starting from their neighbours that kept their routes.
+   *
+   * @param cell      the cell id of a location on one side of the path
+   * @param direction the direction of the path from that location
+   */
+  void pathClosed(int cell, int direction) {
+    int other = grid.neighbour(cell, direction);
+    int child;
+    if (next.get(cell) == direction) {
+      child = cell;
+    } else if (next.get(other) == DungeonGrid.opposite(direction)) {
+      child = other;
+    } else {
+      return;
+    }
+    if (affected == null) {
+      affected = CellArray.ofInts(grid.getCellCount(), offHeap);
+      mark = CellArray.ofInts(grid.getCellCount(), offHeap);
+    }
+    nextStamp();
+    //collect the locations whose route to the end went through the closed path
+    mark.set(child, stamp);
+    affected.set(0, child);
+    int count = 1;
+    for (int i = 0; i < count; i++) {
+      int curr = affected.get(i);
+      for (int d = DungeonGrid.NORTH; d <= DungeonGrid.WEST; d++) {
+        int cell2 = passages.neighbour(curr, d);
+        if (cell2 != DungeonGrid.NO_CELL && mark.get(cell2) != stamp
+                && next.get(cell2) == DungeonGrid.opposite(d)) {
+          mark.set(cell2, stamp);
+          affected.set(count++, cell2);
+        }
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      distance.set(affected.get(i), UNREACHABLE);
+      next.set(affected.get(i), NO_DIRECTION);
+    }
+    //give each of them the best route through a neighbour that kept its route
+    if (seeds.length < count) {
+      seeds = new long[Math.max(count, seeds.length * 2)];
+    }
+    int seedCount = 0;
+    for (int i = 0; i < count; i++) {
+      int curr = affected.get(i);
+      for (int d = DungeonGrid.NORTH; d <= DungeonGrid.WEST; d++) {
+        int cell2 = passages.neighbour(curr, d);
+        if (cell2 != DungeonGrid.NO_CELL && mark.get(cell2) != stamp
+                && distance.get(cell2) != UNREACHABLE && (distance.get(curr) == UNREACHABLE
+                || distance.get(cell2) + 1 < distance.get(curr))) {
+          distance.set(curr, distance.get(cell2) + 1);
+          next.set(curr, d);
+        }
+      }
+      if (distance.get(curr) != UNREACHABLE) {
+        seeds[seedCount++] = ((long) distance.get(curr) << 32) | curr;
+      }
+    }
+    Arrays.sort(seeds, 0, seedCount);
+    //search outwards from the seeds in order of distance, within the affected locations only
+    int head = 0;
+    int tail = 0;
+    int seed = 0;
+    while (seed < seedCount || head < tail) {
+      int curr;
+      if (head < tail && (seed == seedCount
+              || distance.get(queue.get(head)) <= (int) (seeds[seed] >>> 32))) {
+        curr = queue.get(head++);
+      } else {
+        curr = (int) seeds[seed];
+        if (distance.get(curr) != (int) (seeds[seed++] >>> 32)) {
+          //the location was reached by a shorter route after it was seeded
+          continue;
+        }
+      }
+      for (int d = DungeonGrid.NORTH; d <= DungeonGrid.WEST; d++) {
+        int cell2 = passages.neighbour(curr, d);
+        if (cell2 != DungeonGrid.NO_CELL && mark.get(cell2) == stamp
+                && (distance.get(cell2) == UNREACHABLE
+                || distance.get(curr) + 1 < distance.get(cell2))) {
+          distance.set(cell2, distance.get(curr) + 1);
+          next.set(cell2, DungeonGrid.opposite(d));
+          queue.set(tail++, cell2);
+        }
+      }
+    }
+  }
+
+  /**
+   * Frees the buffers that the field holds outside the heap, after which it cannot be used.
+   */
+  void free() {
+    distance.free();
+    next.free();
+    queue.free();
+    if (affected != null) {
+      affected.free();
+      mark.free();
+    }
+  }
+
+  private boolean improves(int from, int to) {
+    return distance.get(from) != UNREACHABLE
+            && (distance.get(to) == UNREACHABLE || distance.get(from) + 1 < distance.get(to));
+  }
+
+  private void propagate(int start) {
+    queue.set(0, start);
+    int tail = 1;
+    for (int head = 0; head < tail; head++) {
+      int curr = queue.get(head);
+      for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+        int cell = passages.neighbour(curr, direction);
+        if (cell != DungeonGrid.NO_CELL && improves(curr, cell)) {
+          distance.set(cell, distance.get(curr) + 1);
+          next.set(cell, DungeonGrid.opposite(direction));
+          queue.set(tail++, cell);
+        }
+      }
+    }
+  }
+
+  private void nextStamp() {
+    if (stamp == Integer.MAX_VALUE) {
+      //stamps are about to repeat, so forget every earlier mark
+      mark.fill(0);
+      stamp = 0;
+    }
+    stamp++;
+  }
+}
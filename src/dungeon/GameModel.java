@@ -76,4 +76,78 @@ public interface GameModel {
    */
   public String movePlayerTo(String direction);
 
+  /**
+   * moves the player in the direction mentioned without building a description of the move.
+   *
+   * @param direction the direction in which the player is to be moved
+   * @return BLOCKED if the player cannot move in given direction, otherwise MOVED or REACHED_END
+   *          if the player has moved successfully to a new location
+   */
+  public MoveOutcome movePlayer(Direction direction);
+
+  /**
+   * moves the player along the given directions in one call, stopping at the first invalid move
+   * or when the player reaches the end location.
+   *
+   * @param directions   the directions in which the player is to be moved, in order
+   * @param pickTreasure true if the player picks the treasure at every location they arrive at
+   * @return the summary of the moves made and the treasure picked up
+   * @throws IllegalArgumentException if the list or any of its directions is null, in which case
+   *                                  the player is not moved
+   */
+  public MoveSummary movePlayerAlong(List<Direction> directions, boolean pickTreasure);
+
+  /**
+   * Finds a shortest route between 2 locations of the dungeon, including routes through the
+   * paths that wrap around the edges of the dungeon.
+   *
+   * @param from the location where the route starts
+   * @param to   the location where the route ends
+   * @return the directions to move in, in order, which is empty if the locations are the same
+   */
+  public List<Direction> getShortestPath(String from, String to);
+
+  /**
+   * Gets the no. of moves needed to reach the end location from a location.
+   *
+   * @param location the location
+   * @return the no. of moves along a shortest route to the end location
+   */
+  public int getDistanceToEnd(String location);
+
+  /**
+   * Gets the direction of the first move along a shortest route from a location to the end
+   * location.
+   *
+   * @param location the location
+   * @return the direction to move in, or null if the location is the end location
+   */
+  public Direction getDirectionToEnd(String location);
+
+  /**
+   * Opens a passage between a location and its neighbour in the given direction, after the
+   * dungeon has been created. Only the dungeons that a game creates for itself can be changed;
+   * games played over a shared topology, in an off-heap dungeon or in a dungeon file cannot.
+   *
+   * @param location  the location
+   * @param direction the direction of the neighbour
+   * @return true if the passage was opened, false if it was already open
+   * @throws IllegalStateException if the passages of the dungeon cannot be changed
+   */
+  public boolean openPassage(String location, Direction direction);
+
+  /**
+   * Closes the passage between a location and its neighbour in the given direction, after the
+   * dungeon has been created. A passage is never closed if that would leave any location of the
+   * dungeon unreachable. As with opening passages, only the dungeons that a game creates for
+   * itself can be changed.
+   *
+   * @param location  the location
+   * @param direction the direction of the neighbour
+   * @return true if the passage was closed, false if it was already closed
+   * @throws IllegalStateException if closing the passage would disconnect the dungeon, or if
+   *                               the passages of the dungeon cannot be changed
+   */
+  public boolean closePassage(String location, Direction direction);
+
 }
@@ -0,0 +1,112 @@
+package dungeon;
+
+/**
+ * Selects and removes indexes from the ordered sequence 0..n-1. Selecting the k-th remaining
+ * index behaves exactly like calling get(k) followed by remove(k) on an ArrayList holding the
+ * same sequence, so a given series of random draws always picks the same indexes, but each
+ * selection runs in O(log n) using a binary indexed tree instead of shifting the list. Indexes
+ * can also be given integer weights, in which case each index takes up as many positions as its
+ * weight and is removed whole once selected. The class is kept package private as it will be
+ * used only within the dungeon model package.
+ */
+final class IndexSelector {
+  private final int[] tree;
+  private final int[] weights;
+  private final int highestBit;
+  private int remaining;
+
+  /**
+   * Creates a selector in which all the indexes from 0 to size - 1 are still available.
+   *
+   * @param size the no. of indexes in the sequence
+   */
+  IndexSelector(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size of the selector cannot be negative.");
+    }
+    this.tree = new int[size + 1];
+    this.weights = null;
+    this.remaining = size;
+    //build the tree in linear time with every index counted once
+    for (int i = 1; i <= size; i++) {
+      tree[i]++;
+      int parent = i + (i & -i);
+      if (parent <= size) {
+        tree[parent] += tree[i];
+      }
+    }
+    this.highestBit = size == 0 ? 0 : Integer.highestOneBit(size);
+  }
+
+  /**
+   * Creates a selector in which every index from 0 to weights.length - 1 is still available and
+   * takes up as many positions as its weight.
+   *
+   * @param weights the positive weight of each index, whose total must fit in an int
+   */
+  IndexSelector(int[] weights) {
+    if (weights == null) {
+      throw new IllegalArgumentException("Weights cannot be null.");
+    }
+    int size = weights.length;
+    this.tree = new int[size + 1];
+    this.weights = weights.clone();
+    long total = 0;
+    for (int i = 1; i <= size; i++) {
+      if (weights[i - 1] <= 0) {
+        throw new IllegalArgumentException("Weights must be positive.");
+      }
+      total += weights[i - 1];
+      tree[i] += weights[i - 1];
+      int parent = i + (i & -i);
+      if (parent <= size) {
+        tree[parent] += tree[i];
+      }
+    }
+    if (total > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Total weight is too large.");
+    }
+    this.remaining = (int) total;
+    this.highestBit = size == 0 ? 0 : Integer.highestOneBit(size);
+  }
+
+  /**
+   * Gets the no. of positions that have not been selected yet, which is the no. of remaining
+   * indexes unless the indexes are weighted.
+   *
+   * @return the no. of remaining positions
+   */
+  int remaining() {
+    return remaining;
+  }
+
+  /**
+   * Selects the index at the k-th remaining position and removes it from the sequence.
+   *
+   * @param k the position among the remaining positions
+   * @return the selected index
+   */
+  int select(int k) {
+    if (k < 0 || k >= remaining) {
+      throw new IndexOutOfBoundsException("Position " + k + " is out of bounds for "
+              + remaining + " remaining positions.");
+    }
+    //descend the tree to find the smallest index with k + 1 remaining positions up to it
+    int pos = 0;
+    int rest = k + 1;
+    for (int step = highestBit; step > 0; step >>= 1) {
+      int next = pos + step;
+      if (next < tree.length && tree[next] < rest) {
+        pos = next;
+        rest -= tree[next];
+      }
+    }
+    int selected = pos;
+    int weight = weights == null ? 1 : weights[selected];
+    for (int i = pos + 1; i < tree.length; i += i & -i) {
+      tree[i] -= weight;
+    }
+    remaining -= weight;
+    return selected;
+  }
+}
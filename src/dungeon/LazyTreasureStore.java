@@ -0,0 +1,93 @@
+package dungeon;
+
+/**
+ * Represents treasure that is never stored, but derived on demand from the seed of the dungeon
+ * and the cell id of a location using a counter-based hash. Whether a cave holds treasure and
+ * how much of each type it holds are pure functions of (seed, cell id), so creating the store
+ * takes constant time whatever the size of the dungeon. Each cave holds treasure with the
+ * probability given by the percentage of caves for treasure, so the no. of caves with treasure
+ * is that percentage on average rather than exactly. The only state kept is the set of
+ * locations whose treasure has been picked up and, for the locations whose doors have been
+ * changed after the dungeon was created, whether each was a cave before its first change, so
+ * opening or closing a passage never makes treasure appear or disappear. The class is kept
+ * package private as it will be used only within the dungeon model package.
+ */
+final class LazyTreasureStore implements TreasureStore {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final long seed;
+  private final int percentCavesForTreasure;
+  private final byte[] doors;
+  private final SparseBitSet picked;
+  private final SparseBitSet changed;
+  private final SparseBitSet changedCaves;
+
+  /**
+   * Creates the store for a dungeon.
+   *
+   * @param seed                    the seed from which the treasure is derived
+   * @param percentCavesForTreasure the percentage of caves that hold treasure
+   * @param doors                   the bitmask of open doors of each cell, used to tell caves
+   *                                from tunnels
+   */
+  LazyTreasureStore(long seed, int percentCavesForTreasure, byte[] doors) {
+    this.seed = seed;
+    this.percentCavesForTreasure = percentCavesForTreasure;
+    this.doors = doors;
+    this.picked = new SparseBitSet(doors.length);
+    this.changed = new SparseBitSet(doors.length);
+    this.changedCaves = new SparseBitSet(doors.length);
+  }
+
+  @Override
+  public int get(int cell) {
+    if (!isCave(cell) || picked.get(cell)) {
+      return 0;
+    }
+    long hash = mix(seed + (cell + 1L) * GOLDEN_GAMMA);
+    //the upper 32 bits decide whether the cave holds treasure, scaled to a roll below 100
+    if ((int) (((hash >>> 32) * 100) >>> 32) >= percentCavesForTreasure) {
+      return 0;
+    }
+    long counts = mix(hash);
+    return Treasure.pack(Treasure.DIAMONDS.quantityOf(counts),
+            Treasure.SAPPHIRES.quantityOf(counts >>> 16),
+            Treasure.RUBIES.quantityOf(counts >>> 32));
+  }
+
+  @Override
+  public void doorsChanging(int cell) {
+    if (!changed.get(cell)) {
+      changed.set(cell);
+      if (Integer.bitCount(doors[cell]) != 2) {
+        changedCaves.set(cell);
+      }
+    }
+  }
+
+  /**
+   * Checks whether a location was a cave when the dungeon was created.
+   */
+  private boolean isCave(int cell) {
+    return changed.get(cell) ? changedCaves.get(cell) : Integer.bitCount(doors[cell]) != 2;
+  }
+
+  @Override
+  public int take(int cell) {
+    int word = get(cell);
+    if (word != 0) {
+      picked.set(cell);
+    }
+    return word;
+  }
+
+  /**
+   * Scrambles the bits of a value with the finalizer of SplitMix64, so that consecutive inputs
+   * give unrelated outputs.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
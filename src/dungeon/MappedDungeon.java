@@ -0,0 +1,123 @@
+package dungeon;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a dungeon that is played directly off a memory mapped dungeon file. The doors and
+ * treasure of each location are read from the mapping when they are needed, so opening the
+ * dungeon does not create an object per location. The treasure section may be larger than a
+ * single buffer can address, so it is mapped as a series of chunks. The mapping is read only, and
+ * the locations whose treasure has been picked up are recorded in a sparse set that is allocated
+ * on the first pick up. The doors of a location are checked against those of its neighbours the
+ * first time they are read, and the checked locations are recorded in another sparse set, so a
+ * damaged file is caught without reading all of it when it is opened. The class is kept package
+ * private as it will be used only within the dungeon model package.
+ */
+final class MappedDungeon extends AbstractDungeon {
+  static final int CHUNK_SHIFT = 30;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+  private static final int VALID_DOORS = (1 << (DungeonGrid.WEST + 1)) - 1;
+
+  private final DungeonGrid grid;
+  private final int startLocation;
+  private final int endLocation;
+  private final ByteBuffer doors;
+  private final ByteBuffer[] treasure;
+  private final SparseBitSet checked;
+  private SparseBitSet picked;
+
+  /**
+   * Creates a dungeon over the mapped sections of a dungeon file.
+   *
+   * @param grid          the grid of the dungeon
+   * @param startLocation the cell id of the start location
+   * @param endLocation   the cell id of the end location
+   * @param doors         the door section, holding one byte per location
+   * @param treasure      the treasure section, holding one int per location, split into chunks
+   *                      of 2^CHUNK_SHIFT bytes
+   */
+  MappedDungeon(DungeonGrid grid, int startLocation, int endLocation, ByteBuffer doors,
+                ByteBuffer[] treasure) {
+    this.grid = grid;
+    this.startLocation = startLocation;
+    this.endLocation = endLocation;
+    this.doors = doors;
+    this.treasure = treasure;
+    this.checked = new SparseBitSet(grid.getCellCount());
+  }
+
+  /**
+   * Checks that every open door of a location leads to a location of the grid whose opposite
+   * door is open, so that a damaged or crafted file cannot lead the player off the grid or
+   * through one way doors.
+   *
+   * @param grid  the grid of the dungeon
+   * @param doors the door section, holding one byte per location
+   * @param loc   the cell id of the location
+   * @return true if the doors of the location are valid
+   */
+  static boolean hasMatchingDoors(DungeonGrid grid, ByteBuffer doors, int loc) {
+    int bits = doors.get(loc) & 0xFF;
+    if ((bits & ~VALID_DOORS) != 0) {
+      return false;
+    }
+    for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+      if ((bits & DungeonGrid.doorBit(direction)) != 0) {
+        int other = grid.neighbour(loc, direction);
+        if (other == DungeonGrid.NO_CELL || (doors.get(other)
+                & DungeonGrid.doorBit(DungeonGrid.opposite(direction))) == 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  int takeTreasure(int loc) {
+    int word = getTreasure(loc);
+    if (word != 0) {
+      if (picked == null) {
+        picked = new SparseBitSet(grid.getCellCount());
+      }
+      picked.set(loc);
+    }
+    return word;
+  }
+
+  @Override
+  public int getDoors(int loc) {
+    if (!checked.get(loc)) {
+      if (!hasMatchingDoors(grid, doors, loc)) {
+        throw new IllegalStateException("Dungeon file has a door at cell " + loc
+                + " that does not match its neighbour.");
+      }
+      checked.set(loc);
+    }
+    return doors.get(loc) & 0xFF;
+  }
+
+  @Override
+  public int getTreasure(int loc) {
+    if (picked != null && picked.get(loc)) {
+      return 0;
+    }
+    long offset = (long) loc << 2;
+    return treasure[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+  }
+
+  @Override
+  public DungeonGrid getGrid() {
+    return grid;
+  }
+
+  @Override
+  public int getStartLocation() {
+    return startLocation;
+  }
+
+  @Override
+  public int getEndLocation() {
+    return endLocation;
+  }
+}
@@ -3,11 +3,8 @@ package dungeon;
 import randoms.Randomizer;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Represents the MasterDungeon that is created for the player to move and collect treasure.
@@ -18,21 +15,31 @@ import java.util.Set;
  * The dungeons can be wrapping or non wrapping as well. The class is kept package private as it
  * will be used only within the dungeon model package.
  */
-class MasterDungeon implements Dungeon {
+class MasterDungeon extends AbstractDungeon {
+  static final int DEFAULT_MIN_TERMINAL_DISTANCE = 5;
+
   private final int rowCount;
   private final int colCount;
   private final int degOfInterconnectivity;
   private final boolean isWrap;
   private final int percentCavesForTreasure;
+  private final int minTerminalDistance;
+  private final TreasurePlacement treasurePlacement;
+  private final boolean lazyTreasure;
+  private final DungeonGrid grid;
   private Randomizer r;
-  private Edge e;
   private List<Edge> updatedEdges = new ArrayList<>();
-  private List<Edge> interconnectivityEdges = new ArrayList<>();
-  private List<Edge> edges = new ArrayList<>();
-  private List<Set> listOfSets = new ArrayList();
-  private List<Cave> caves = new ArrayList<>();
-  private String startLocation = "";
-  private String endLocation = "";
+  private int[] edgeSlots;
+  private int[] edgeP1;
+  private int[] edgeP2;
+  private int[] interconnectivityEdges;
+  private CaveStore caves;
+  private int[] neighbours;
+  private ContractedCaveGraph caveGraph;
+  private ExitDistanceField exitField;
+  private TreasureStore treasure;
+  private int startLocation = DungeonGrid.NO_CELL;
+  private int endLocation = DungeonGrid.NO_CELL;
 
   /**
    * Creates an instance of a dungeon that the player can enter and play.
@@ -47,6 +54,46 @@ class MasterDungeon implements Dungeon {
    */
   MasterDungeon(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
                 int percentCavesForTreasure, Randomizer r) {
+    this(rowCount, colCount, degOfInterconnectivity, isWrap, percentCavesForTreasure,
+            DEFAULT_MIN_TERMINAL_DISTANCE, r);
+  }
+
+  /**
+   * Creates an instance of a dungeon that the player can enter and play, where the start and end
+   * locations are at least the given no. of moves apart.
+   *
+   * @param rowCount                the no. of rows in the dungeon grid
+   * @param colCount                the no. of columns in the dungeon grid
+   * @param degOfInterconnectivity  the no of paths that can be added to the kruskals output minimum
+   *                                spanning tree.
+   * @param isWrap                  true if the dungeon has paths wrapping type
+   * @param percentCavesForTreasure the percentage of caves to which treasure is to be assigned
+   * @param minTerminalDistance     the minimum no. of moves between the start and end location
+   * @param r                       the randomizer object
+   */
+  MasterDungeon(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                int percentCavesForTreasure, int minTerminalDistance, Randomizer r) {
+    this(rowCount, colCount, degOfInterconnectivity, isWrap, percentCavesForTreasure,
+            minTerminalDistance, TreasurePlacement.UNIFORM, false, r, true);
+  }
+
+  /**
+   * Creates an instance of a dungeon that the player can enter and play, for the given
+   * configuration.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   */
+  MasterDungeon(DungeonConfig config, Randomizer r) {
+    this(config.getRowCount(), config.getColCount(), config.getDegOfInterconnectivity(),
+            config.isWrap(), config.getPercentCavesForTreasure(), config.getMinTerminalDistance(),
+            config.getTreasurePlacement(), config.isLazyTreasure(), r, true);
+  }
+
+  private MasterDungeon(int rowCount, int colCount, int degOfInterconnectivity, boolean isWrap,
+                        int percentCavesForTreasure, int minTerminalDistance,
+                        TreasurePlacement treasurePlacement, boolean lazyTreasure, Randomizer r,
+                        boolean build) {
     if (rowCount < 3 || colCount < 3) {
       throw new IllegalArgumentException("Minimum dimension of the dungeon should be 3X3.");
     }
@@ -57,13 +104,38 @@ class MasterDungeon implements Dungeon {
     if (percentCavesForTreasure < 0) {
       throw new IllegalArgumentException("Percentage of caves to get treasure cannot be negative.");
     }
+    if (minTerminalDistance < 1) {
+      throw new IllegalArgumentException("Minimum distance between start and end location should "
+              + "be at least 1.");
+    }
     this.rowCount = rowCount;
     this.colCount = colCount;
     this.degOfInterconnectivity = degOfInterconnectivity;
     this.isWrap = isWrap;
     this.percentCavesForTreasure = percentCavesForTreasure;
+    this.minTerminalDistance = minTerminalDistance;
+    this.treasurePlacement = treasurePlacement;
+    this.lazyTreasure = lazyTreasure;
+    this.grid = new DungeonGrid(rowCount, colCount, isWrap);
     this.r = r;
-    createDungeon();
+    if (build) {
+      createDungeon();
+    }
+  }
+
+  /**
+   * Creates a dungeon for the given configuration without running any of the phases of the
+   * dungeon creation, so that the phases can be run and measured one at a time.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   * @return the dungeon whose phases are yet to be run
+   */
+  static MasterDungeon unbuilt(DungeonConfig config, Randomizer r) {
+    return new MasterDungeon(config.getRowCount(), config.getColCount(),
+            config.getDegOfInterconnectivity(), config.isWrap(),
+            config.getPercentCavesForTreasure(), config.getMinTerminalDistance(),
+            config.getTreasurePlacement(), config.isLazyTreasure(), r, false);
   }
 
   private boolean isDegOfInterconnectivityValid(int degOfInterconnectivity, int rows, int cols,
@@ -93,32 +165,40 @@ class MasterDungeon implements Dungeon {
     //set the Start and End Locations
     setTerminals();
 
+    //find the distance from every location to the end location
+    computeExitDistances();
+
     //assign treasure to the specified percentage of caves
     assignTreasure();
   }
 
-  private void initializeAllEdges() {
+  //the phases below are package private so that they can be benchmarked one at a time
+  void initializeAllEdges() {
     //check if it is wrapping type dungeon or not, accordingly create the edges.
+    //each edge is stored as the pair of cell ids (row * colCount + col) it connects
+    int edgeCount;
+    if (isWrap) {
+      edgeCount = rowCount * colCount * 2;
+    } else {
+      edgeCount = (rowCount * (colCount - 1)) + ((rowCount - 1) * colCount);
+    }
+    edgeP1 = new int[edgeCount];
+    edgeP2 = new int[edgeCount];
+    int index = 0;
     //creating edges for wrapping dungeon
     if (isWrap) {
       for (int i = 0; i < rowCount; i++) {
         for (int j = 0; j < colCount; j++) {
-          if (j == colCount - 1) {
-            e = new DungeonEdge("" + i + j, "" + i + "0");
-          } else {
-            e = new DungeonEdge("" + i + j, "" + i + (j + 1));
-          }
-          edges.add(e);
+          edgeP1[index] = grid.cellId(i, j);
+          edgeP2[index] = grid.cellId(i, (j + 1) % colCount);
+          index++;
         }
       }
       for (int i = 0; i < rowCount; i++) {
         for (int j = 0; j < colCount; j++) {
-          if (i == rowCount - 1) {
-            e = new DungeonEdge("" + i + j, "" + "0" + j);
-          } else {
-            e = new DungeonEdge("" + i + j, "" + (i + 1) + j);
-          }
-          edges.add(e);
+          edgeP1[index] = grid.cellId(i, j);
+          edgeP2[index] = grid.cellId((i + 1) % rowCount, j);
+          index++;
         }
       }
     }
@@ -126,313 +206,174 @@ class MasterDungeon implements Dungeon {
     else {
       for (int i = 0; i < rowCount; i++) {
         for (int j = 0; j < colCount - 1; j++) {
-          e = new DungeonEdge("" + i + j, "" + i + (j + 1));
-          edges.add(e);
+          edgeP1[index] = grid.cellId(i, j);
+          edgeP2[index] = grid.cellId(i, j + 1);
+          index++;
         }
       }
       for (int i = 0; i < rowCount - 1; i++) {
         for (int j = 0; j < colCount; j++) {
-          e = new DungeonEdge("" + i + j, "" + (i + 1) + j);
-          edges.add(e);
+          edgeP1[index] = grid.cellId(i, j);
+          edgeP2[index] = grid.cellId(i + 1, j);
+          index++;
         }
       }
     }
-    updatedEdges = edges;
   }
 
-  private void createKruskalsMaze() {
-    updatedEdges = new ArrayList<>();
-    //create sets for each node 00-ij
-    for (int i = 0; i < rowCount; i++) {
-      for (int j = 0; j < colCount; j++) {
-        Set<String> a = new HashSet<String>();
-        a.add("" + i + j);
-        listOfSets.add(a);
-      }
+  void createKruskalsMaze() {
+    int edgeCount = edgeP1.length;
+    //shuffle the edges, drawing a random position among the edges not picked so far
+    int[] shuffledEdges = new int[edgeCount];
+    IndexSelector selector = new IndexSelector(edgeCount);
+    for (int k = 0; k < edgeCount; k++) {
+      shuffledEdges[k] = selector.select(r.getRandomInt(0, selector.remaining()));
     }
-    //for all edges in the edges list
-    while (edges.size() > 0) {
-      boolean skipMerging = false;
-      Set<String> mergedSet = new HashSet<String>();
-      //select a random edge from edges list
-      int r_index = r.getRandomInt(0, edges.size());
-      String p1 = edges.get(r_index).getP1();
-      String p2 = edges.get(r_index).getP2();
-      //check if p1 and p2 are in same set
-      for (Set<String> s : listOfSets) {
-        //if yes, then add the edge to interconnectivity list
-        if (s.contains(p1) && s.contains(p2)) {
-          interconnectivityEdges.add(edges.get(r_index));
-          skipMerging = true;
-        }
-        //if no, then merge the sets containing p1 and p2
-        else {
-          if (s.contains(p1)) {
-            mergedSet.addAll(s);
-          }
-          if (s.contains(p2)) {
-            mergedSet.addAll(s);
-          }
-        }
-      }
-      if (!skipMerging) {
-        //remove the original sets from the list
-        List<Set> l_copy = new ArrayList();
-        for (Set<String> s : listOfSets) {
-          l_copy.add(s);
-        }
-        for (Set<String> s : l_copy) {
-          if (s.contains(p1)) {
-            listOfSets.remove(s);
-          }
-          if (s.contains(p2)) {
-            listOfSets.remove(s);
-          }
-        }
-        //add the new merged set to the list
-        listOfSets.add(mergedSet);
-        updatedEdges.add(edges.get(r_index));
+    //create a set for each cell and add the edges that join 2 different sets to the maze
+    DisjointSet sets = new DisjointSet(rowCount * colCount);
+    int[] leftoverEdges = new int[edgeCount - (rowCount * colCount - 1)];
+    int leftoverCount = 0;
+    for (int edge : shuffledEdges) {
+      if (sets.union(edgeP1[edge], edgeP2[edge])) {
+        updatedEdges.add(createEdge(edge));
+      } else {
+        //p1 and p2 are already connected, so keep the edge for interconnectivity
+        leftoverEdges[leftoverCount++] = edge;
       }
-      //remove the edge from edges list
-      edges.remove(r_index);
     }
+    interconnectivityEdges = leftoverEdges;
   }
 
-  private void applyInterconnectivity() {
+  void applyInterconnectivity() {
+    IndexSelector selector = new IndexSelector(interconnectivityEdges.length);
     for (int i = 0; i < degOfInterconnectivity; i++) {
-      int index = r.getRandomInt(0, interconnectivityEdges.size());
-      updatedEdges.add(interconnectivityEdges.get(index));
-      interconnectivityEdges.remove(index);
-    }
-  }
-
-  private void createCaves() {
-    for (int i = 0; i < rowCount; i++) {
-      for (int j = 0; j < colCount; j++) {
-        boolean northOpen = false;
-        boolean southOpen = false;
-        boolean westOpen = false;
-        boolean eastOpen = false;
-        for (Edge e : updatedEdges) {
-          //open the doors for available path (when current location is p1 vertex of edge)
-          if (e.getP1().equals("" + i + j)) {
-            if (e.getP2().equals("" + (i - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP2().equals("" + i + (j + 1))) {
-              eastOpen = true;
-            }
-            if (e.getP2().equals("" + (i + 1) + j)) {
-              southOpen = true;
-            }
-            if (e.getP2().equals("" + i + (j - 1))) {
-              westOpen = true;
-            }
-          }
-          //open the doors for available path (when current location is p2 vertex of edge)
-          if (e.getP2().equals("" + i + j)) {
-            if (e.getP1().equals("" + (i - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP1().equals("" + i + (j + 1))) {
-              eastOpen = true;
-            }
-            if (e.getP1().equals("" + (i + 1) + j)) {
-              southOpen = true;
-            }
-            if (e.getP1().equals("" + i + (j - 1))) {
-              westOpen = true;
-            }
-          }
-          //for last row and last column edges (wrapping special case)
-          if (isWrap && e.getP1().equals("" + i + j) && ((j == colCount - 1)
-                  || (i == rowCount - 1))) {
-            if (e.getP2().equals("" + i + "0")) {
-              eastOpen = true;
-            }
-            if (e.getP2().equals("" + "0" + j)) {
-              southOpen = true;
-            }
-            if (e.getP2().equals("" + (i - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP2().equals("" + i + (j - 1))) {
-              westOpen = true;
-            }
-          }
-          if (isWrap && e.getP2().equals("" + i + j) && ((j == colCount - 1)
-                  || (i == rowCount - 1))) {
-            if (e.getP1().equals("" + i + "0")) {
-              eastOpen = true;
-            }
-            if (e.getP1().equals("" + "0" + j)) {
-              southOpen = true;
-            }
-            if (e.getP1().equals("" + (i - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP1().equals("" + i + (j - 1))) {
-              westOpen = true;
-            }
-          }
-          //for first row and first column edges(wrapping special case)
-          if (isWrap && e.getP1().equals("" + i + j) && ((j == 0) || (i == 0))) {
-            if (e.getP2().equals("" + i + (j + 1))) {
-              eastOpen = true;
-            }
-            if (e.getP2().equals("" + (i + 1) + j)) {
-              southOpen = true;
-            }
-            if (e.getP2().equals("" + (rowCount - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP2().equals("" + i + (colCount - 1))) {
-              westOpen = true;
-            }
-          }
-          if (isWrap && e.getP2().equals("" + i + j) && ((j == 0) || (i == 0))) {
-            if (e.getP1().equals("" + i + (j + 1))) {
-              eastOpen = true;
-            }
-            if (e.getP1().equals("" + (i + 1) + j)) {
-              southOpen = true;
-            }
-            if (e.getP1().equals("" + (rowCount - 1) + j)) {
-              northOpen = true;
-            }
-            if (e.getP1().equals("" + i + (colCount - 1))) {
-              westOpen = true;
-            }
-          }
+      int index = selector.select(r.getRandomInt(0, selector.remaining()));
+      updatedEdges.add(createEdge(interconnectivityEdges[index]));
+    }
+  }
+
+  private Edge createEdge(int edge) {
+    return new DungeonEdge(edgeP1[edge], edgeP2[edge]);
+  }
+
+  void createCaves() {
+    //open the doors on both sides of every edge in a single pass over the edges
+    caves = new CaveStore(grid.getCellCount());
+    for (Edge e : updatedEdges) {
+      int direction = grid.directionTo(e.getP1(), e.getP2());
+      caves.openDoor(e.getP1(), direction);
+      caves.openDoor(e.getP2(), DungeonGrid.opposite(direction));
+    }
+    //resolve the neighbour behind each open door once, leaving NO_CELL for the walls, into an
+    //adjacency array of 4 slots per cell that the route searches read and edits patch in place
+    neighbours = new int[grid.getCellCount() * 4];
+    for (int cell = 0; cell < grid.getCellCount(); cell++) {
+      for (int direction = DungeonGrid.NORTH; direction <= DungeonGrid.WEST; direction++) {
+        if ((caves.getDoors(cell) & DungeonGrid.doorBit(direction)) != 0) {
+          neighbours[(cell << 2) + direction] = grid.neighbour(cell, direction);
+        } else {
+          neighbours[(cell << 2) + direction] = DungeonGrid.NO_CELL;
         }
-        Cave c = new Cave("" + i + j, northOpen, southOpen, eastOpen, westOpen);
-        caves.add(c);
       }
     }
+    caveGraph = new ContractedCaveGraph(grid, caves.doors());
   }
 
-  private void setTerminals() {
-    int caveIndex = 0;
+  void setTerminals() {
     int randomLoopCounter = 0;
-    boolean terminalsFound = false;
-    String startLocation = "";
-    String endLocation = "";
-    while (!terminalsFound && randomLoopCounter < 50) {
-      caveIndex = r.getRandomInt(0, caves.size());
+    //try random start caves, finding the distance to every other cave with a single search over
+    //the caves, with the tunnels between them contracted to weighted paths
+    while (randomLoopCounter < 50) {
+      int caveIndex = r.getRandomInt(0, grid.getCellCount());
       randomLoopCounter++;
-      if (!caves.get(caveIndex).isTunnel()) {
+      if (!caves.cave(caveIndex).isTunnel()) {
         //set start location
-        startLocation = caves.get(caveIndex).getLocation();
-        //for all other locations find shortest distance from start location
-        for (Cave c : caves) {
-          if (!c.isTunnel()) {
-            //select an end location
-            endLocation = c.getLocation();
-            //check that start location is not same as end location
-            if (!endLocation.equals(startLocation)) {
-              //find shortest path from start to end location
-              int movementCounter = bfs(startLocation, endLocation);
-              //if shortest path >= 5, then select this end location
-              if (movementCounter >= 5) {
-                terminalsFound = true;
-                break;
-              }
-            }
+        int startLocation = caveIndex;
+        caveGraph.distancesFrom(startLocation);
+        //select the first other cave that is far enough from the start location
+        for (int node = 0; node < caveGraph.getNodeCount(); node++) {
+          int cell = caveGraph.cellOf(node);
+          if (caveGraph.distanceTo(cell) >= minTerminalDistance) {
+            this.startLocation = startLocation;
+            this.endLocation = cell;
+            return;
           }
         }
       }
     }
-    if (terminalsFound) {
-      this.startLocation = startLocation;
-      this.endLocation = endLocation;
-    } else {
-      throw new IllegalStateException("No path of length 5 or more can be constructed between "
-              + "any of the existing cave locations.");
+    //fall back to the 2 caves furthest apart found by sweeping from the farthest cave twice
+    if (caveGraph.getNodeCount() > 0) {
+      int startLocation = farthestCave(caveGraph.cellOf(0));
+      int endLocation = farthestCave(startLocation);
+      if (caveGraph.distanceTo(endLocation) >= minTerminalDistance) {
+        this.startLocation = startLocation;
+        this.endLocation = endLocation;
+        return;
+      }
+      //the sweeps can miss the farthest pair when the paths form cycles, so check every cave
+      for (int node = 0; node < caveGraph.getNodeCount(); node++) {
+        endLocation = farthestCave(caveGraph.cellOf(node));
+        if (caveGraph.distanceTo(endLocation) >= minTerminalDistance) {
+          this.startLocation = caveGraph.cellOf(node);
+          this.endLocation = endLocation;
+          return;
+        }
+      }
     }
+    throw new IllegalStateException("No path of length " + minTerminalDistance + " or more can "
+            + "be constructed between any of the existing cave locations.");
   }
 
-  private int bfs(String startLocation, String endLocation) {
-    //create queue to store node and distance required to reach the node
-    Map<String, Integer> bfsQueue = new LinkedHashMap<String, Integer>();
-
-    //create visited hashmap to store the visited nodes
-    List<String> visited = new ArrayList<>();
-
-    //add the start node to queue with distance 0
-    bfsQueue.put(startLocation, 0);
-
-    //do this while queue is not empty
-    while (!bfsQueue.isEmpty()) {
-      //get the location of first element in the queue
-      String currLoc = bfsQueue.keySet().toArray()[0].toString();
-
-      //get the distance of current node from start location
-      int currDistance = bfsQueue.get(currLoc);
-
-      //add the current node to visited list
-      visited.add(currLoc);
-
-      //remove the current node from the queue
-      bfsQueue.remove(currLoc);
+  private int farthestCave(int from) {
+    caveGraph.distancesFrom(from);
+    int farthest = from;
+    for (int node = 0; node < caveGraph.getNodeCount(); node++) {
+      int cell = caveGraph.cellOf(node);
+      if (caveGraph.distanceTo(cell) > caveGraph.distanceTo(farthest)) {
+        farthest = cell;
+      }
+    }
+    return farthest;
+  }
 
-      //find the next locations to traverse from current node
-      for (Edge e : updatedEdges) {
-        //if current node is same as p1 vertex of edge, and p2 vertex is not yet visited,
-        // and p2 vertex is not already added in the queue
-        if (e.getP1().equals(currLoc) && !visited.contains(e.getP2())
-                && !bfsQueue.containsKey(e.getP2())) {
-          //add the p2 vertex to the queue with new distance
-          bfsQueue.put(e.getP2(), currDistance + 1);
-          //if p2 vertex is the endLocation , then return the current distance required to reach p2
-          if (e.getP2().equals(endLocation)) {
-            return currDistance + 1;
-          }
-        }
-        //if current node is same as p2 vertex of edge, and p1 vertex is not yet visited,
-        // and p1 vertex is not already added in the queue
-        if (e.getP2().equals(currLoc) && !visited.contains(e.getP1())
-                && !bfsQueue.containsKey(e.getP1())) {
-          //add the p1 vertex to the queue with new distance
-          bfsQueue.put(e.getP1(), currDistance + 1);
-          //if p1 vertex is the endLocation , then return the current distance required to reach p1
-          if (e.getP1().equals(endLocation)) {
-            return currDistance + 1;
-          }
-        }
-      } //end of for loop
-    } //end of while loop
-    //if the endlocation was not found then return -1
-    return -1;
+  void computeExitDistances() {
+    exitField = new ExitDistanceField(grid, this, endLocation);
   }
 
-  private void assignTreasure() {
+  void assignTreasure() {
     //throw exception if input percentage is negative
     if (percentCavesForTreasure < 0 || percentCavesForTreasure > 100) {
       throw new IllegalArgumentException("Please enter a valid percentage(Range: 0-100) of caves "
               + "for which treasure is to be assigned");
     }
-    //create a copy of the caves list
-    List<Cave> cavesCopy = new ArrayList<>();
-    for (Cave c : caves) {
-      cavesCopy.add(c);
+    if (lazyTreasure) {
+      if (percentCavesForTreasure == 0) {
+        throw new IllegalArgumentException("Percentage too low. Please enter a higher "
+                + "percentage of caves for which treasure is to be assigned");
+      }
+      //derive the treasure of each cave from a seed when the cave is first looked at
+      long seed = ((long) r.getRandomInt(0, 1 << 30) << 30) | r.getRandomInt(0, 1 << 30);
+      treasure = new LazyTreasureStore(seed, percentCavesForTreasure, caves.doors());
+      return;
+    }
+    treasure = caves;
+    //list the caves once, so that choosing among them takes a single draw per cave
+    int[] caveIds = new int[caveCounter()];
+    int caveIndex = 0;
+    for (int cell = 0; cell < grid.getCellCount(); cell++) {
+      if (!caves.isTunnel(cell)) {
+        caveIds[caveIndex++] = cell;
+      }
     }
     //calculate the no of caves to which treasure will be assigned
-    int treasureCaveCounter = Math.round(percentCavesForTreasure * caveCounter() / 100);
+    int treasureCaveCounter = Math.round(percentCavesForTreasure * caveIds.length / 100);
     //check that no of caves is greater than 0
     if (treasureCaveCounter > 0) {
-      //while no of caves pending to be assigned treasure is not 0, do the following
-      while (treasureCaveCounter != 0) {
-        //select a random cave index
-        int caveIndex = r.getRandomInt(0, caves.size());
-        //check if the cave is not a tunnel and has not been assigned treasure before
-        if (!caves.get(caveIndex).isTunnel() && cavesCopy.contains(caves.get(caveIndex))) {
-          //assigne treaasure to the cave
-          caves.get(caveIndex).assignInitialTreasure();
-          //remove the cave from cave copy list to ensure that it is not selected again
-          cavesCopy.remove(caves.get(caveIndex));
-          //decrease the counter for no of caves pending to be assigned treasure
-          treasureCaveCounter--;
-        }
+      //draw the treasure quantities from their own stream, leaving the cave draws unchanged
+      Randomizer quantities = r.split();
+      for (int cave : treasurePlacement.choose(caveIds, treasureCaveCounter, caveGraph,
+              startLocation, r)) {
+        caves.assignInitialTreasure(cave, quantities);
       }
     } else {
       throw new IllegalArgumentException("Percentage too low. Please enter a higher percentage "
@@ -442,8 +383,8 @@ class MasterDungeon implements Dungeon {
 
   private int caveCounter() {
     int counter = 0;
-    for (Cave c : caves) {
-      if (!c.isTunnel()) {
+    for (int cell = 0; cell < grid.getCellCount(); cell++) {
+      if (!caves.isTunnel(cell)) {
         counter++;
       }
     }
@@ -451,138 +392,164 @@ class MasterDungeon implements Dungeon {
   }
 
   @Override
-  public void addPlayer(Player p) {
-    if (p == null) {
-      throw new IllegalArgumentException("Player cannot be null.");
-    }
-    p.setLocation(startLocation);
+  public int neighbour(int loc, int direction) {
+    return neighbours[(loc << 2) + direction];
   }
 
   @Override
-  public String move(Player p, String direction) {
-    if (p == null) {
-      throw new IllegalArgumentException("Player cannot be null.");
-    }
-    String[] s = p.getLocation().split("");
-    int i = Integer.parseInt(s[0]);
-    int j = Integer.parseInt(s[1]);
-    String nextLoc = "";
-    boolean invalidMove = true;
-    for (Cave c : caves) {
-      if (c.getLocation().equals(p.getLocation())) {
-        if (direction.equals("North") && c.isMoveNorth()) {
-          invalidMove = false;
-          if (isWrap && i == 0) {
-            i = rowCount;
-          }
-          nextLoc = "" + (i - 1) + j;
-        } else if (direction.equals("South") && c.isMoveSouth()) {
-          invalidMove = false;
-          if (isWrap && i == rowCount - 1) {
-            i = -1;
-          }
-          nextLoc = "" + (i + 1) + j;
-        } else if (direction.equals("West") && c.isMoveWest()) {
-          invalidMove = false;
-          if (isWrap && j == 0) {
-            j = colCount;
-          }
-          nextLoc = "" + i + (j - 1);
-        } else if (direction.equals("East") && c.isMoveEast()) {
-          invalidMove = false;
-          if (isWrap && j == colCount - 1) {
-            j = -1;
-          }
-          nextLoc = "" + i + (j + 1);
-        }
-      }
-    }
-    if (invalidMove) {
-      return "Invalid move.";
-    } else {
-      p.setLocation(nextLoc);
-      return "Player moved to Location " + p.getLocation();
-    }
+  int takeTreasure(int loc) {
+    return treasure.take(loc);
   }
 
   @Override
-  public void pickTreasure(Player p) {
-    if (p == null) {
-      throw new IllegalArgumentException("Player cannot be null.");
-    }
-    for (Cave c : caves) {
-      if (c.getLocation().equals(p.getLocation())) {
-        p.addTreasure(c.getDiamondCount(), c.getSapphireCount(), c.getRubyCount());
-        c.updatePickedTreasureStatus();
-      }
-    }
+  ExitDistanceField getExitField() {
+    return exitField;
   }
 
   @Override
-  public List<Edge> getEdges() {
-    return updatedEdges;
+  public int getDoors(int loc) {
+    return caves.getDoors(loc);
   }
 
   @Override
-  public String getStartLocation() {
-    return startLocation;
+  public int getTreasure(int loc) {
+    return treasure.get(loc);
   }
 
+  /**
+   * Copies the paths of the dungeon, as the list of paths is patched in place whenever a passage
+   * is opened or closed.
+   */
   @Override
-  public String getEndLocation() {
-    return endLocation;
+  public List<Edge> getEdges() {
+    return new ArrayList<>(updatedEdges);
   }
 
   @Override
-  public String getLocationType(String loc) {
-    if (loc == null) {
-      throw new IllegalArgumentException("Location cannot be null");
-    }
-    for (Cave c : caves) {
-      if (c.getLocation().equals(loc)) {
-        if (c.isTunnel()) {
-          return "Tunnel";
-        } else {
-          return "Cave";
-        }
-      }
+  public boolean openPassage(int loc, Direction direction) {
+    int other = passageNeighbour(loc, direction);
+    if ((caves.getDoors(loc) & direction.doorBit()) != 0) {
+      return false;
     }
-    return "Location Not Found. Please try entering a valid location";
+    setPassage(loc, direction, other, true);
+    exitField.pathOpened(loc, direction.ordinal());
+    return true;
   }
 
   @Override
-  public String getLocationTreasure(String loc) {
-    if (loc == null) {
-      throw new IllegalArgumentException("Location cannot be null");
-    }
-    for (Cave c : caves) {
-      if (c.getLocation().equals(loc)) {
-        return "Diamonds- " + c.getDiamondCount() + ", Sapphires- " + c.getSapphireCount()
-                + ", Rubies- " + c.getRubyCount();
-      }
+  public boolean closePassage(int loc, Direction direction) {
+    int other = passageNeighbour(loc, direction);
+    if ((caves.getDoors(loc) & direction.doorBit()) == 0) {
+      return false;
+    }
+    if (exitField.wouldDisconnect(loc, direction.ordinal())) {
+      throw new IllegalStateException("Closing the passage would disconnect the dungeon.");
     }
-    return "Treasure details Not Found. Please try entering a valid location";
+    setPassage(loc, direction, other, false);
+    exitField.pathClosed(loc, direction.ordinal());
+    return true;
   }
 
-  @Override
-  public String getNextPossibleMoves(String loc) {
-    String moves = "";
-    for (Cave c : caves) {
-      if (c.getLocation().equals(loc)) {
-        if (c.isMoveNorth()) {
-          moves += "North ";
-        }
-        if (c.isMoveEast()) {
-          moves += "East ";
-        }
-        if (c.isMoveSouth()) {
-          moves += "South ";
-        }
-        if (c.isMoveWest()) {
-          moves += "West ";
-        }
+  private int passageNeighbour(int loc, Direction direction) {
+    if (!isValidLocation(loc)) {
+      throw new IllegalArgumentException("Location does not exist in the dungeon.");
+    }
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    int other = grid.neighbour(loc, direction.ordinal());
+    if (other == DungeonGrid.NO_CELL) {
+      throw new IllegalArgumentException("There is no location to the " + direction.getName()
+              + " of the location.");
+    }
+    return other;
+  }
+
+  /**
+   * Opens or closes the doors on both sides of a passage. The doors, the neighbour table that
+   * the route searches read and the edge list are all updated in place, so an edit takes
+   * constant time. The contracted cave graph is only used while the dungeon is created, so it is
+   * dropped rather than updated.
+   */
+  private void setPassage(int loc, Direction direction, int other, boolean open) {
+    int opposite = DungeonGrid.opposite(direction.ordinal());
+    if (edgeSlots == null) {
+      indexEdges();
+    }
+    int slot = edgeSlot(loc, direction.ordinal(), other);
+    treasure.doorsChanging(loc);
+    treasure.doorsChanging(other);
+    if (open) {
+      caves.openDoor(loc, direction.ordinal());
+      caves.openDoor(other, opposite);
+      neighbours[(loc << 2) + direction.ordinal()] = other;
+      neighbours[(other << 2) + opposite] = loc;
+      //list the path from its west or north side, as the generated paths are
+      boolean fromLoc = direction == Direction.EAST || direction == Direction.SOUTH;
+      edgeSlots[slot] = updatedEdges.size();
+      updatedEdges.add(fromLoc ? new DungeonEdge(loc, other) : new DungeonEdge(other, loc));
+    } else {
+      caves.closeDoor(loc, direction.ordinal());
+      caves.closeDoor(other, opposite);
+      neighbours[(loc << 2) + direction.ordinal()] = DungeonGrid.NO_CELL;
+      neighbours[(other << 2) + opposite] = DungeonGrid.NO_CELL;
+      //move the last edge into the place of the removed one
+      int index = edgeSlots[slot];
+      Edge last = updatedEdges.remove(updatedEdges.size() - 1);
+      if (index < updatedEdges.size()) {
+        updatedEdges.set(index, last);
+        edgeSlots[edgeSlot(last)] = index;
       }
+      edgeSlots[slot] = -1;
     }
-    return moves;
+    caveGraph = null;
+  }
+
+  /**
+   * Records the position of every path in the edge list, so that a closed path can be removed
+   * from the list without searching it.
+   */
+  private void indexEdges() {
+    edgeSlots = new int[grid.getCellCount() * 2];
+    Arrays.fill(edgeSlots, -1);
+    for (int i = 0; i < updatedEdges.size(); i++) {
+      edgeSlots[edgeSlot(updatedEdges.get(i))] = i;
+    }
+  }
+
+  private int edgeSlot(Edge e) {
+    return edgeSlot(e.getP1(), grid.directionTo(e.getP1(), e.getP2()), e.getP2());
+  }
+
+  /**
+   * Gets the slot of a path in the edge index, which holds the east and then the south path of
+   * every location, so each path has the slot of the location on its west or north side.
+   */
+  private static int edgeSlot(int loc, int direction, int other) {
+    switch (direction) {
+      case DungeonGrid.EAST:
+        return loc << 1;
+      case DungeonGrid.SOUTH:
+        return (loc << 1) + 1;
+      case DungeonGrid.WEST:
+        return other << 1;
+      default:
+        return (other << 1) + 1;
+    }
+  }
+
+  @Override
+  public DungeonGrid getGrid() {
+    return grid;
+  }
+
+  @Override
+  public int getStartLocation() {
+    return startLocation;
+  }
+
+  @Override
+  public int getEndLocation() {
+    return endLocation;
   }
 }
@@ -9,7 +9,7 @@ class MasterDungeonPlayer implements Player {
   private int diamondCount;
   private int sapphireCount;
   private int rubyCount;
-  private String location;
+  private int location;
 
   /**
    * Creates a player that will be entered into the dungeon. The player is created with 0 treasure
@@ -18,11 +18,12 @@ class MasterDungeonPlayer implements Player {
    * @param diamondCount  count of diamonds that the player has before starting the game
    * @param sapphireCount count of sapphires that the player has before starting the game
    * @param rubyCount     count of rubies that the player has before starting the game
-   * @param location      current location of the player
+   * @param location      cell id of the current location of the player
    */
-  MasterDungeonPlayer(int diamondCount, int sapphireCount, int rubyCount, String location) {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
+  MasterDungeonPlayer(int diamondCount, int sapphireCount, int rubyCount, int location) {
+    if (location < DungeonGrid.NO_CELL) {
+      throw new IllegalArgumentException("Location should be a cell id, or NO_CELL before the "
+              + "player enters the dungeon.");
     }
     this.diamondCount = diamondCount;
     this.sapphireCount = sapphireCount;
@@ -38,9 +39,10 @@ class MasterDungeonPlayer implements Player {
   }
 
   @Override
-  public void setLocation(String location) {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
+  public void setLocation(int location) {
+    if (location < DungeonGrid.NO_CELL) {
+      throw new IllegalArgumentException("Location should be a cell id, or NO_CELL before the "
+              + "player enters the dungeon.");
     }
     this.location = location;
   }
@@ -61,7 +63,7 @@ class MasterDungeonPlayer implements Player {
   }
 
   @Override
-  public String getLocation() {
+  public int getLocation() {
     return location;
   }
 }
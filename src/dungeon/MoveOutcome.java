@@ -0,0 +1,21 @@
+package dungeon;
+
+/**
+ * Represents the outcome of moving a player in a direction in the dungeon.
+ */
+public enum MoveOutcome {
+  /**
+   * The player moved to the neighbouring location.
+   */
+  MOVED,
+
+  /**
+   * The player moved to the neighbouring location, which is the end location of the dungeon.
+   */
+  REACHED_END,
+
+  /**
+   * A wall exists in the direction, so the player remains in the same location.
+   */
+  BLOCKED
+}
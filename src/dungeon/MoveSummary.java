@@ -0,0 +1,72 @@
+package dungeon;
+
+/**
+ * Represents the result of moving a player along a sequence of directions in one call. The
+ * summary is immutable.
+ */
+public final class MoveSummary {
+  private final int stepsTaken;
+  private final String finalLocation;
+  private final MoveOutcome lastOutcome;
+  private final int diamondsGained;
+  private final int sapphiresGained;
+  private final int rubiesGained;
+
+  /**
+   * Creates the summary of a sequence of moves.
+   *
+   * @param stepsTaken      the no. of moves the player made
+   * @param finalLocation   the location of the player after the moves
+   * @param lastOutcome     the outcome of the last move that was attempted
+   * @param diamondsGained  the no. of diamonds picked up during the moves
+   * @param sapphiresGained the no. of sapphires picked up during the moves
+   * @param rubiesGained    the no. of rubies picked up during the moves
+   */
+  MoveSummary(int stepsTaken, String finalLocation, MoveOutcome lastOutcome, int diamondsGained,
+              int sapphiresGained, int rubiesGained) {
+    this.stepsTaken = stepsTaken;
+    this.finalLocation = finalLocation;
+    this.lastOutcome = lastOutcome;
+    this.diamondsGained = diamondsGained;
+    this.sapphiresGained = sapphiresGained;
+    this.rubiesGained = rubiesGained;
+  }
+
+  public int getStepsTaken() {
+    return stepsTaken;
+  }
+
+  public String getFinalLocation() {
+    return finalLocation;
+  }
+
+  /**
+   * Gets the outcome of the last move that was attempted, which tells why the sequence stopped.
+   * BLOCKED means the sequence stopped at an invalid move, REACHED_END means it stopped at the
+   * end location, and MOVED means every move of the sequence was made.
+   *
+   * @return the outcome of the last move, or null if the sequence had no moves
+   */
+  public MoveOutcome getLastOutcome() {
+    return lastOutcome;
+  }
+
+  public int getDiamondsGained() {
+    return diamondsGained;
+  }
+
+  public int getSapphiresGained() {
+    return sapphiresGained;
+  }
+
+  public int getRubiesGained() {
+    return rubiesGained;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d steps to %s (%s), gained Diamonds- %d, Sapphires- %d, Rubies- %d",
+            stepsTaken, finalLocation, lastOutcome, diamondsGained, sapphiresGained,
+            rubiesGained);
+  }
+}
@@ -0,0 +1,97 @@
+package dungeon;
+
+import java.util.List;
+
+/**
+ * Represents a game model in which many players explore the same dungeon at the same time. Each
+ * player is identified by the id returned when it is added, and may be driven by its own thread.
+ * The treasure of a cave goes to exactly one player, whichever picks it up first.
+ */
+public interface MultiPlayerGameModel {
+
+  /**
+   * The start location of the dungeon.
+   *
+   * @return the cave location from where the players enter the dungeon
+   */
+  public String getStartLocation();
+
+  /**
+   * The end location of the dungeon.
+   *
+   * @return the cave location from where the players exit the dungeon
+   */
+  public String getEndLocation();
+
+  /**
+   * Represents the path that the players can traverse through in the dungeon.
+   *
+   * @return the list of edges that form the paths in the dungeon
+   */
+  public List<String> getEdges();
+
+  /**
+   * Creates a new player and adds them to the dungeon at the start location.
+   *
+   * @return the id of the new player
+   */
+  public int addPlayer();
+
+  /**
+   * Removes a player from the dungeon. The treasure they collected leaves the game with them.
+   *
+   * @param playerId the id of the player
+   */
+  public void removePlayer(int playerId);
+
+  /**
+   * Gets the no. of players currently in the dungeon.
+   *
+   * @return the no. of players
+   */
+  public int getPlayerCount();
+
+  /**
+   * Get the current location of a player in the dungeon.
+   *
+   * @param playerId the id of the player
+   * @return location of the player in the dungeon
+   */
+  public String getPlayerLocation(int playerId);
+
+  /**
+   * Gets the description of the treasure and next possible moves from the current location
+   * of a player.
+   *
+   * @param playerId the id of the player
+   * @return the description of the location of the player
+   */
+  public String getPlayerLocationDescription(int playerId);
+
+  /**
+   * Picks the treasure from the current cave of a player and assigns it to them. If another
+   * player has already picked the treasure of the cave, nothing is picked.
+   *
+   * @param playerId the id of the player
+   */
+  public void pickTreasureAtLocation(int playerId);
+
+  /**
+   * Get the description of a player along with the information of treasure they have collected
+   * till this point in game.
+   *
+   * @param playerId the id of the player
+   * @return player description
+   */
+  public String getPlayerDescription(int playerId);
+
+  /**
+   * moves a player in the direction mentioned.
+   *
+   * @param playerId  the id of the player
+   * @param direction the direction in which the player is to be moved
+   * @return BLOCKED if the player cannot move in given direction, otherwise MOVED or REACHED_END
+   *          if the player has moved successfully to a new location
+   */
+  public MoveOutcome movePlayer(int playerId, Direction direction);
+}
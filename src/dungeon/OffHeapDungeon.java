@@ -0,0 +1,276 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a dungeon whose doors and treasure are held in direct buffers outside the heap, so
+ * that dungeons with a billion locations take neither heap space nor garbage collection time.
+ * Only the east and south door of each location are stored, in 2 bits, as the west and north
+ * doors are the east and south doors of the neighbouring locations. The treasure of each location
+ * is stored as a packed treasure word, split into chunks of 2^CHUNK_SHIFT bytes as a single
+ * buffer cannot address all of them.
+ *
+ * <p>The dungeon is filled row by row as the sink of the streaming dungeon generator, after
+ * which the start and end location are chosen with searches that are bounded in size. Routes,
+ * distances to the end location and the edge list read the doors in place, and the buffers they
+ * keep for every location are direct buffers as well, so every query is answered whatever the
+ * size of the dungeon; only the answers themselves, such as a route or the name of a path, are
+ * created on the heap. Closing the dungeon frees all of its buffers straight away instead of
+ * waiting for the garbage collector, after which the dungeon cannot be used. The class is not
+ * thread safe, and closing it while another thread is using it can make that thread read freed
+ * memory. The class is kept package private as it will be used only within the dungeon model
+ * package.
+ */
+final class OffHeapDungeon extends AbstractDungeon implements RowSink {
+  static final int CHUNK_SHIFT = 30;
+  private static final int MAX_SEARCHED_LOCATIONS = 1 << 20;
+  private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+  private static final int MAX_TERMINAL_ATTEMPTS = 50;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final int EAST_BIT = 1;
+  private static final int SOUTH_BIT = 2;
+  private static final int EAST_DOOR = Direction.EAST.doorBit();
+  private static final int SOUTH_DOOR = Direction.SOUTH.doorBit();
+  private static final int WEST_DOOR = Direction.WEST.doorBit();
+  private static final int NORTH_DOOR = Direction.NORTH.doorBit();
+
+  private final DungeonGrid grid;
+  private ByteBuffer doorBits;
+  private ByteBuffer[] treasure;
+  private int startLocation = DungeonGrid.NO_CELL;
+  private int endLocation = DungeonGrid.NO_CELL;
+  private DoorEdgeList edges;
+
+  /**
+   * Creates a dungeon with all doors closed and no treasure, allocating its buffers from the
+   * dimensions of the grid.
+   *
+   * @param grid the grid of the dungeon
+   */
+  OffHeapDungeon(DungeonGrid grid) {
+    this.grid = grid;
+    long cellCount = grid.getCellCount();
+    //4 locations share a byte, so the doors of the largest grid fit in a single buffer
+    this.doorBits = ByteBuffer.allocateDirect((int) ((cellCount + 3) >>> 2));
+    long treasureSize = cellCount << 2;
+    long chunkSize = 1L << CHUNK_SHIFT;
+    this.treasure = new ByteBuffer[(int) ((treasureSize + chunkSize - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < treasure.length; i++) {
+      long size = Math.min(chunkSize, treasureSize - i * chunkSize);
+      treasure[i] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+    }
+  }
+
+  @Override
+  public void acceptRow(int row, byte[] doors, int[] treasure) {
+    int cell = row * grid.getColCount();
+    for (int c = 0; c < doors.length; c++, cell++) {
+      int bits = 0;
+      if ((doors[c] & EAST_DOOR) != 0) {
+        bits |= EAST_BIT;
+      }
+      if ((doors[c] & SOUTH_DOOR) != 0) {
+        bits |= SOUTH_BIT;
+      }
+      int shift = (cell & 3) << 1;
+      int index = cell >>> 2;
+      doorBits.put(index, (byte) ((doorBits.get(index) & ~(3 << shift)) | (bits << shift)));
+      long offset = (long) cell << 2;
+      this.treasure[(int) (offset >>> CHUNK_SHIFT)].putInt((int) (offset & CHUNK_MASK),
+              treasure[c]);
+    }
+  }
+
+  /**
+   * Chooses a random cave as the start location and a cave at least the given no. of moves away
+   * from it as the end location. Each search from a start cave stops after visiting
+   * MAX_SEARCHED_LOCATIONS locations, so choosing the terminals does not depend on the size of
+   * the dungeon.
+   *
+   * @param r                   the randomizer object
+   * @param minTerminalDistance the minimum no. of moves between the start and end location
+   * @throws IllegalStateException if no end location is found for any of the start caves tried
+   */
+  void chooseTerminals(Randomizer r, int minTerminalDistance) {
+    for (int attempt = 0; attempt < MAX_TERMINAL_ATTEMPTS; attempt++) {
+      int start = r.getRandomInt(0, grid.getCellCount());
+      if (Integer.bitCount(getDoors(start)) != 2) {
+        int end = caveAtDistance(start, minTerminalDistance);
+        if (end != DungeonGrid.NO_CELL) {
+          this.startLocation = start;
+          this.endLocation = end;
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("No path of length " + minTerminalDistance + " or more can "
+            + "be constructed between any of the existing cave locations.");
+  }
+
+  /**
+   * Searches level by level from a location for the first cave at least the given no. of moves
+   * away from it.
+   *
+   * @return the cell id of the cave or NO_CELL if the search ends without finding one
+   */
+  private int caveAtDistance(int start, int minDistance) {
+    //only the pages of the locations near the start are allocated
+    SparseBitSet visited = new SparseBitSet(grid.getCellCount());
+    int[] frontier = new int[16];
+    int[] next = new int[16];
+    int frontierSize = 1;
+    int searched = 1;
+    frontier[0] = start;
+    visited.set(start);
+    for (int distance = 1; frontierSize > 0 && searched < MAX_SEARCHED_LOCATIONS; distance++) {
+      int nextSize = 0;
+      for (int i = 0; i < frontierSize; i++) {
+        for (Direction d : DIRECTIONS) {
+          int cell = neighbour(frontier[i], d);
+          if (cell == DungeonGrid.NO_CELL || visited.get(cell)) {
+            continue;
+          }
+          if (distance >= minDistance && Integer.bitCount(getDoors(cell)) != 2) {
+            return cell;
+          }
+          visited.set(cell);
+          searched++;
+          if (nextSize == next.length) {
+            next = Arrays.copyOf(next, nextSize * 2);
+          }
+          next[nextSize++] = cell;
+        }
+      }
+      int[] swap = frontier;
+      frontier = next;
+      next = swap;
+      frontierSize = nextSize;
+    }
+    return DungeonGrid.NO_CELL;
+  }
+
+  private int doorBits(int loc) {
+    return (doorBits.get(loc >>> 2) >>> ((loc & 3) << 1)) & 3;
+  }
+
+  private void requireOpen() {
+    if (doorBits == null) {
+      throw new IllegalStateException("The dungeon has been closed.");
+    }
+  }
+
+  @Override
+  boolean isOffHeap() {
+    return true;
+  }
+
+  @Override
+  int[] route(int from, int to) {
+    requireOpen();
+    return super.route(from, to);
+  }
+
+  @Override
+  ExitDistanceField getExitField() {
+    requireOpen();
+    return super.getExitField();
+  }
+
+  /**
+   * Lists the paths of the dungeon by reading its doors as the list is read, as the doors of the
+   * dungeon never change. The list cannot be read once the dungeon is closed.
+   */
+  @Override
+  public List<Edge> getEdges() {
+    requireOpen();
+    if (edges == null) {
+      edges = new DoorEdgeList(this, true);
+    }
+    return edges;
+  }
+
+  /**
+   * Frees the buffers of the dungeon and of its searches. Without access to the cleaner of
+   * direct buffers the buffers are only dropped, and are freed by the garbage collector as
+   * before. The lock only makes sure that the buffers are freed once when the dungeon is closed
+   * more than once; the dungeon must not be closed while another thread is using it.
+   */
+  @Override
+  public synchronized void close() {
+    if (doorBits == null) {
+      return;
+    }
+    super.close();
+    if (edges != null) {
+      edges.free();
+      edges = null;
+    }
+    ByteBuffer doors = doorBits;
+    ByteBuffer[] chunks = treasure;
+    doorBits = null;
+    treasure = null;
+    BufferCleaner.free(doors);
+    for (ByteBuffer chunk : chunks) {
+      BufferCleaner.free(chunk);
+    }
+  }
+
+  @Override
+  int takeTreasure(int loc) {
+    requireOpen();
+    long offset = (long) loc << 2;
+    ByteBuffer chunk = treasure[(int) (offset >>> CHUNK_SHIFT)];
+    int word = chunk.getInt((int) (offset & CHUNK_MASK));
+    chunk.putInt((int) (offset & CHUNK_MASK), 0);
+    return word;
+  }
+
+  @Override
+  public int getDoors(int loc) {
+    requireOpen();
+    int bits = doorBits(loc);
+    int doors = 0;
+    if ((bits & EAST_BIT) != 0) {
+      doors |= EAST_DOOR;
+    }
+    if ((bits & SOUTH_BIT) != 0) {
+      doors |= SOUTH_DOOR;
+    }
+    int west = grid.neighbour(loc, DungeonGrid.WEST);
+    if (west != DungeonGrid.NO_CELL && (doorBits(west) & EAST_BIT) != 0) {
+      doors |= WEST_DOOR;
+    }
+    int north = grid.neighbour(loc, DungeonGrid.NORTH);
+    if (north != DungeonGrid.NO_CELL && (doorBits(north) & SOUTH_BIT) != 0) {
+      doors |= NORTH_DOOR;
+    }
+    return doors;
+  }
+
+  @Override
+  public int getTreasure(int loc) {
+    requireOpen();
+    long offset = (long) loc << 2;
+    return treasure[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+  }
+
+  @Override
+  public DungeonGrid getGrid() {
+    return grid;
+  }
+
+  @Override
+  public int getStartLocation() {
+    return startLocation;
+  }
+
+  @Override
+  public int getEndLocation() {
+    return endLocation;
+  }
+}
@@ -0,0 +1,19 @@
+package dungeon;
+
+/**
+ * Represents the open paths of a dungeon as they are read by the searches over it. Searches ask
+ * for the location behind each door of a location as they reach it, so they always see the
+ * current doors of the dungeon, wherever those are stored, without copying them. The interface
+ * is kept package private as it will be used only within the dungeon model package.
+ */
+interface Passages {
+
+  /**
+   * Gets the location behind the door in the given direction.
+   *
+   * @param cell      the cell id of the location
+   * @param direction one of NORTH, EAST, SOUTH or WEST
+   * @return the cell id of the neighbouring location or NO_CELL if there is a wall
+   */
+  int neighbour(int cell, int direction);
+}
@@ -30,9 +30,9 @@ interface Player {
   /**
    * Get the current location of the player.
    *
-   * @return location of the player
+   * @return cell id of the location of the player
    */
-  String getLocation();
+  int getLocation();
 
   /**
    * Add the newly picked treasure values to existing treasure values.
@@ -46,8 +46,8 @@ interface Player {
   /**
    * Set the location of the player.
    *
-   * @param location location set by the dungeon model.
+   * @param location cell id of the location set by the dungeon model.
    */
-  void setLocation(String location);
+  void setLocation(int location);
 
 }
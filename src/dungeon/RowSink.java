@@ -0,0 +1,32 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a dungeon as they are produced by the streaming dungeon generator. Each
+ * location is described by the bitmask of its open doors, where the door in a direction is open
+ * if the bit given by Direction.doorBit is set, and by its packed treasure word, whose counts can
+ * be read with Treasure.countIn.
+ */
+public interface RowSink {
+
+  /**
+   * Accepts a row of the dungeon. The arrays are reused for the next row, so they should be
+   * copied if they are needed after this method returns.
+   *
+   * @param row      the index of the row in the dungeon
+   * @param doors    the bitmask of open doors of each location in the row
+   * @param treasure the packed treasure word of each location in the row
+   * @throws IOException if the row cannot be written
+   */
+  void acceptRow(int row, byte[] doors, int[] treasure) throws IOException;
+
+  /**
+   * Called once all the rows of the dungeon have been accepted.
+   *
+   * @throws IOException if the dungeon cannot be completed
+   */
+  default void finish() throws IOException {
+    // Most sinks have nothing left to do once the last row is written.
+  }
+}
@@ -0,0 +1,74 @@
+package dungeon;
+
+/**
+ * Represents the dungeon of a single game played over a shared dungeon topology. The doors,
+ * terminals and initial treasure are read from the topology, and the game only records which
+ * locations its player has picked the treasure from, in a sparse set that is allocated on the
+ * first pick up. A game therefore takes memory in proportion to the treasure its player has
+ * collected rather than to the size of the dungeon. The class is kept package private as it will
+ * be used only within the dungeon model package.
+ */
+final class SessionDungeon extends AbstractDungeon {
+  private final DungeonTopology topology;
+  private SparseBitSet picked;
+
+  /**
+   * Creates the dungeon of a game played over the given topology, with all of its initial
+   * treasure in place.
+   *
+   * @param topology the shared topology of the dungeon
+   */
+  SessionDungeon(DungeonTopology topology) {
+    this.topology = topology;
+  }
+
+  @Override
+  int takeTreasure(int loc) {
+    int word = getTreasure(loc);
+    if (word != 0) {
+      if (picked == null) {
+        picked = new SparseBitSet(topology.getGrid().getCellCount());
+      }
+      picked.set(loc);
+    }
+    return word;
+  }
+
+  @Override
+  ExitDistanceField getExitField() {
+    return topology.getExitField();
+  }
+
+  @Override
+  int[] route(int from, int to) {
+    return topology.route(from, to);
+  }
+
+  @Override
+  public int getDoors(int loc) {
+    return topology.getDoors(loc);
+  }
+
+  @Override
+  public int getTreasure(int loc) {
+    if (picked != null && picked.get(loc)) {
+      return 0;
+    }
+    return topology.getTreasure(loc);
+  }
+
+  @Override
+  public DungeonGrid getGrid() {
+    return topology.getGrid();
+  }
+
+  @Override
+  public int getStartLocation() {
+    return topology.getStartLocation();
+  }
+
+  @Override
+  public int getEndLocation() {
+    return topology.getEndLocation();
+  }
+}
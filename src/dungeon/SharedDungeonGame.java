@@ -0,0 +1,164 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * SharedDungeonGame is a game in which many players explore one dungeon concurrently. The paths
+ * of the dungeon never change once it is created, so moves only read them and take no lock other
+ * than that of the moving player. The treasure of every location is copied into an array of
+ * packed treasure words when the game starts, and a pick up claims a whole word by swapping it
+ * with zero, so the treasure of a cave can only ever be collected once.
+ */
+public class SharedDungeonGame implements MultiPlayerGameModel {
+  private final Dungeon d;
+  private final AtomicIntegerArray treasure;
+  private final Map<Integer, Player> players;
+  private final AtomicInteger nextPlayerId;
+
+  /**
+   * Creates an instance of a game that will create the dungeon for the given configuration.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   */
+  public SharedDungeonGame(DungeonConfig config, Randomizer r) {
+    this(createDungeon(config, r));
+  }
+
+  /**
+   * Creates an instance of a game played in an existing dungeon. The dungeon must not be used
+   * elsewhere while the game is played.
+   *
+   * @param d the dungeon in which the game is played
+   */
+  SharedDungeonGame(Dungeon d) {
+    if (d == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null.");
+    }
+    this.d = d;
+    int cellCount = d.getGrid().getCellCount();
+    this.treasure = new AtomicIntegerArray(cellCount);
+    for (int loc = 0; loc < cellCount; loc++) {
+      treasure.set(loc, d.getTreasure(loc));
+    }
+    this.players = new ConcurrentHashMap<>();
+    this.nextPlayerId = new AtomicInteger();
+  }
+
+  private static Dungeon createDungeon(DungeonConfig config, Randomizer r) {
+    if (config == null) {
+      throw new IllegalArgumentException("Configuration cannot be null.");
+    }
+    return new MasterDungeon(config, r);
+  }
+
+  private Player getPlayer(int playerId) {
+    Player p = players.get(playerId);
+    if (p == null) {
+      throw new IllegalArgumentException("Player " + playerId + " does not exist for this game.");
+    }
+    return p;
+  }
+
+  @Override
+  public String getStartLocation() {
+    return d.getGrid().toLocation(d.getStartLocation());
+  }
+
+  @Override
+  public String getEndLocation() {
+    return d.getGrid().toLocation(d.getEndLocation());
+  }
+
+  @Override
+  public List<String> getEdges() {
+    DungeonGrid grid = d.getGrid();
+    List<String> dungeonPaths = new ArrayList<>();
+    for (Edge e : d.getEdges()) {
+      dungeonPaths.add(grid.toLocation(e.getP1()) + "-" + grid.toLocation(e.getP2()));
+    }
+    return dungeonPaths;
+  }
+
+  @Override
+  public int addPlayer() {
+    int playerId = nextPlayerId.getAndIncrement();
+    Player p = new MasterDungeonPlayer(0, 0, 0, DungeonGrid.NO_CELL);
+    d.addPlayer(p);
+    players.put(playerId, p);
+    return playerId;
+  }
+
+  @Override
+  public void removePlayer(int playerId) {
+    if (players.remove(playerId) == null) {
+      throw new IllegalArgumentException("Player " + playerId + " does not exist for this game.");
+    }
+  }
+
+  @Override
+  public int getPlayerCount() {
+    return players.size();
+  }
+
+  @Override
+  public String getPlayerLocation(int playerId) {
+    Player p = getPlayer(playerId);
+    synchronized (p) {
+      return d.getGrid().toLocation(p.getLocation());
+    }
+  }
+
+  @Override
+  public String getPlayerLocationDescription(int playerId) {
+    Player p = getPlayer(playerId);
+    int loc;
+    synchronized (p) {
+      loc = p.getLocation();
+    }
+    String type = d.getLocationType(loc);
+    String s = String.format("Current location details:\nType: %s", type);
+    if (type.equals("Cave")) {
+      s += "\nTreasure: " + AbstractDungeon.describeTreasure(treasure.get(loc));
+    }
+    if (loc != d.getEndLocation()) {
+      s += "\nNext possible moves: " + d.getNextPossibleMoves(loc);
+    }
+    return s;
+  }
+
+  @Override
+  public void pickTreasureAtLocation(int playerId) {
+    Player p = getPlayer(playerId);
+    synchronized (p) {
+      int word = treasure.getAndSet(p.getLocation(), 0);
+      p.addTreasure(Treasure.DIAMONDS.countIn(word), Treasure.SAPPHIRES.countIn(word),
+              Treasure.RUBIES.countIn(word));
+    }
+  }
+
+  @Override
+  public String getPlayerDescription(int playerId) {
+    Player p = getPlayer(playerId);
+    synchronized (p) {
+      return String.format("\nCurrent player details: \nLocation: %s\nTreasure: Diamonds- %d, "
+                      + "Sapphires- %d, Rubies- %d", d.getGrid().toLocation(p.getLocation()),
+              p.getDiamondCount(), p.getSapphireCount(), p.getRubyCount());
+    }
+  }
+
+  @Override
+  public MoveOutcome movePlayer(int playerId, Direction direction) {
+    Player p = getPlayer(playerId);
+    synchronized (p) {
+      return d.move(p, direction);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package dungeon;
+
+/**
+ * Represents a set of cell ids as bits which are stored in pages of 4096 bits, where a page is
+ * only allocated once one of its bits is set. A set with few bits spread over a huge dungeon
+ * therefore takes one reference per page of cells instead of one bit per cell. The class is
+ * kept package private as it will be used only within the dungeon model package.
+ */
+final class SparseBitSet {
+  private static final int PAGE_SHIFT = 12;
+  private static final int WORDS_PER_PAGE = 1 << (PAGE_SHIFT - 6);
+
+  private final long[][] pages;
+
+  /**
+   * Creates an empty set for the cell ids from 0 to size - 1.
+   *
+   * @param size the no. of cell ids
+   */
+  SparseBitSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size of the bit set cannot be negative.");
+    }
+    this.pages = new long[(int) (((long) size + (1 << PAGE_SHIFT) - 1) >>> PAGE_SHIFT)][];
+  }
+
+  /**
+   * Checks whether a cell id is in the set.
+   *
+   * @param index the cell id
+   * @return true if the cell id is in the set
+   */
+  boolean get(int index) {
+    long[] page = pages[index >>> PAGE_SHIFT];
+    return page != null && (page[(index >>> 6) & (WORDS_PER_PAGE - 1)] & (1L << index)) != 0;
+  }
+
+  /**
+   * Adds a cell id to the set.
+   *
+   * @param index the cell id
+   */
+  void set(int index) {
+    long[] page = pages[index >>> PAGE_SHIFT];
+    if (page == null) {
+      page = new long[WORDS_PER_PAGE];
+      pages[index >>> PAGE_SHIFT] = page;
+    }
+    page[(index >>> 6) & (WORDS_PER_PAGE - 1)] |= 1L << index;
+  }
+}
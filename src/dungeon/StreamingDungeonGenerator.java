@@ -0,0 +1,274 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+import java.io.IOException;
+
+/**
+ * Generates a dungeon one row at a time and hands each finished row to a sink, so that dungeons
+ * far larger than the heap can be produced with memory proportional to the no. of columns. The
+ * maze is built using Eller's algorithm: the cells of a row are randomly joined to their
+ * neighbours in other sets, every set is carried down to the next row through at least one door,
+ * and the last row joins all remaining sets, which guarantees that every location can be reached
+ * from every other location.
+ *
+ * <p>Every passage that the algorithm does not carve is a candidate for interconnectivity, and
+ * the required no. of candidates is selected while streaming so that each candidate is equally
+ * likely to be opened. Wrapping passages are always treated as candidates. Treasure is assigned
+ * to each cave independently with the given percentage as its probability, as the total no. of
+ * caves is not known until the last row. The start and end locations are not chosen as that
+ * needs a search over the whole dungeon, unless the dungeon is generated off the heap, where
+ * they are chosen with searches that are bounded in size.
+ */
+public class StreamingDungeonGenerator {
+  private static final byte NORTH_DOOR = (byte) DungeonGrid.doorBit(DungeonGrid.NORTH);
+  private static final byte EAST_DOOR = (byte) DungeonGrid.doorBit(DungeonGrid.EAST);
+  private static final byte SOUTH_DOOR = (byte) DungeonGrid.doorBit(DungeonGrid.SOUTH);
+  private static final byte WEST_DOOR = (byte) DungeonGrid.doorBit(DungeonGrid.WEST);
+
+  private final int rowCount;
+  private final int colCount;
+  private final int degOfInterconnectivity;
+  private final boolean isWrap;
+  private final int percentCavesForTreasure;
+  private final int minTerminalDistance;
+  private final Randomizer r;
+  private final long candidateCount;
+  private long remainingCandidates;
+  private int pendingExtraPaths;
+
+  /**
+   * Creates a generator for a dungeon of the given configuration. The minimum distance between
+   * terminals is only used when the dungeon is generated off the heap.
+   *
+   * @param config the configuration of the dungeon
+   * @param r      the randomizer object
+   */
+  public StreamingDungeonGenerator(DungeonConfig config, Randomizer r) {
+    if (config == null) {
+      throw new IllegalArgumentException("Configuration cannot be null.");
+    }
+    if (r == null) {
+      throw new IllegalArgumentException("Randomizer cannot be null.");
+    }
+    if (config.getRowCount() < 3 || config.getColCount() < 3) {
+      throw new IllegalArgumentException("Minimum dimension of the dungeon should be 3X3.");
+    }
+    long cells = (long) config.getRowCount() * config.getColCount();
+    long candidates = edgeCount(config) - (cells - 1);
+    if (candidates > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon has too many locations to be generated.");
+    }
+    if (config.getDegOfInterconnectivity() < 0
+            || config.getDegOfInterconnectivity() > candidates) {
+      throw new IllegalArgumentException("Degree of interconnectivity is Invalid.");
+    }
+    if (config.getPercentCavesForTreasure() < 0 || config.getPercentCavesForTreasure() > 100) {
+      throw new IllegalArgumentException("Please enter a valid percentage(Range: 0-100) of caves "
+              + "for which treasure is to be assigned");
+    }
+    this.rowCount = config.getRowCount();
+    this.colCount = config.getColCount();
+    this.degOfInterconnectivity = config.getDegOfInterconnectivity();
+    this.isWrap = config.isWrap();
+    this.percentCavesForTreasure = config.getPercentCavesForTreasure();
+    this.minTerminalDistance = config.getMinTerminalDistance();
+    this.r = r;
+    this.candidateCount = candidates;
+  }
+
+  private static long edgeCount(DungeonConfig config) {
+    long rows = config.getRowCount();
+    long cols = config.getColCount();
+    if (config.isWrap()) {
+      return rows * cols * 2;
+    }
+    return (rows * cols * 2) - rows - cols;
+  }
+
+  /**
+   * Generates the dungeon, handing each row to the sink in order from the first row to the last
+   * row, and then finishes the sink.
+   *
+   * @param sink the sink that receives the rows
+   * @throws IOException if the sink cannot write a row
+   */
+  public void generate(RowSink sink) throws IOException {
+    if (sink == null) {
+      throw new IllegalArgumentException("Sink cannot be null.");
+    }
+    remainingCandidates = candidateCount;
+    pendingExtraPaths = degOfInterconnectivity;
+
+    int[] label = new int[colCount];
+    int[] nextLabel = new int[colCount];
+    int[] labelStamp = new int[colCount];
+    int[] lastCol = new int[colCount];
+    boolean[] hasDown = new boolean[colCount];
+    boolean[] down = new boolean[colCount];
+    boolean[] northOpen = new boolean[colCount];
+    boolean[] southOpen = new boolean[colCount];
+    boolean[] wrapOpen = new boolean[colCount];
+    byte[] doors = new byte[colCount];
+    int[] treasure = new int[colCount];
+    DisjointSet sets = new DisjointSet(colCount);
+
+    //the wrapping passages between the last and first row are decided first, as they are the
+    //north doors of the first row
+    if (isWrap) {
+      for (int c = 0; c < colCount; c++) {
+        wrapOpen[c] = selectExtraPath();
+        northOpen[c] = wrapOpen[c];
+      }
+    }
+    for (int c = 0; c < colCount; c++) {
+      label[c] = c;
+    }
+    for (int row = 0; row < rowCount; row++) {
+      boolean lastRow = row == rowCount - 1;
+      sets.reset();
+      for (int c = 0; c < colCount; c++) {
+        doors[c] = northOpen[c] ? NORTH_DOOR : 0;
+      }
+      //join neighbours in the row, the last row joins every pair of neighbours in different sets
+      for (int c = 0; c < colCount - 1; c++) {
+        boolean carve;
+        if (sets.find(label[c]) != sets.find(label[c + 1])
+                && (lastRow || r.getRandomInt(0, 2) == 0)) {
+          sets.union(label[c], label[c + 1]);
+          carve = true;
+        } else {
+          carve = selectExtraPath();
+        }
+        if (carve) {
+          doors[c] |= EAST_DOOR;
+          doors[c + 1] |= WEST_DOOR;
+        }
+      }
+      if (isWrap && selectExtraPath()) {
+        doors[colCount - 1] |= EAST_DOOR;
+        doors[0] |= WEST_DOOR;
+      }
+      if (lastRow) {
+        System.arraycopy(wrapOpen, 0, southOpen, 0, colCount);
+      } else {
+        carryDown(sets, label, nextLabel, labelStamp, lastCol, hasDown, down, southOpen, row + 1);
+        int[] swap = label;
+        label = nextLabel;
+        nextLabel = swap;
+      }
+      for (int c = 0; c < colCount; c++) {
+        if (southOpen[c]) {
+          doors[c] |= SOUTH_DOOR;
+        }
+        treasure[c] = 0;
+        if (Integer.bitCount(doors[c]) != 2 && percentCavesForTreasure > 0
+                && r.getRandomInt(0, 100) < percentCavesForTreasure) {
+          treasure[c] = Treasure.pack(Treasure.DIAMONDS.getRandomQuantity(r),
+                  Treasure.SAPPHIRES.getRandomQuantity(r), Treasure.RUBIES.getRandomQuantity(r));
+        }
+      }
+      sink.acceptRow(row, doors, treasure);
+      boolean[] swap = northOpen;
+      northOpen = southOpen;
+      southOpen = swap;
+    }
+    if (pendingExtraPaths != 0) {
+      throw new IllegalStateException("Could not add all the interconnectivity paths.");
+    }
+    sink.finish();
+  }
+
+  /**
+   * Generates the dungeon into memory outside the heap and chooses its start and end location,
+   * so that even dungeons with a billion locations can be played without taking heap space. The
+   * doors and treasure are the same as those handed to a sink by generate for the same draws.
+   * Shortest paths, distances to the end and the list of paths keep their buffers outside the
+   * heap as well, and the passages of the dungeon cannot be changed. Closing the game frees the
+   * memory of the dungeon, and must not be done while another thread is playing it.
+   *
+   * @return the game played in the generated dungeon
+   * @throws IllegalStateException if no start and end location far enough apart are found
+   */
+  public DungeonGame generateOffHeap() {
+    if (minTerminalDistance < 1) {
+      throw new IllegalArgumentException("Minimum distance between start and end location should "
+              + "be at least 1.");
+    }
+    OffHeapDungeon dungeon = new OffHeapDungeon(new DungeonGrid(rowCount, colCount, isWrap));
+    try {
+      generate(dungeon);
+    } catch (IOException e) {
+      //the dungeon writes to memory and never fails to accept a row
+      throw new IllegalStateException(e);
+    }
+    dungeon.chooseTerminals(r, minTerminalDistance);
+    return new DungeonGame(dungeon);
+  }
+
+  /**
+   * Opens the south doors of the current row, making sure every set goes down through at least
+   * one door, and labels the sets of the next row so that the labels stay below the no. of
+   * columns.
+   */
+  private void carryDown(DisjointSet sets, int[] label, int[] nextLabel, int[] labelStamp,
+                         int[] lastCol, boolean[] hasDown, boolean[] down, boolean[] southOpen,
+                         int stamp) {
+    for (int c = 0; c < colCount; c++) {
+      int root = sets.find(label[c]);
+      if (labelStamp[root] != stamp) {
+        labelStamp[root] = stamp;
+        hasDown[root] = false;
+      }
+      down[c] = r.getRandomInt(0, 2) == 0;
+      hasDown[root] |= down[c];
+      lastCol[root] = c;
+    }
+    for (int c = 0; c < colCount; c++) {
+      int root = sets.find(label[c]);
+      if (!hasDown[root] && lastCol[root] == c) {
+        down[c] = true;
+      }
+      southOpen[c] = down[c] || selectExtraPath();
+    }
+    //cells below a carried down set keep the set, every other cell starts a new set
+    int nextFree = 0;
+    for (int c = 0; c < colCount; c++) {
+      int root = sets.find(label[c]);
+      if (down[c]) {
+        if (labelStamp[root] == stamp) {
+          //first cell of this set in the next row, give the set a new compact label
+          labelStamp[root] = -stamp;
+          lastCol[root] = nextFree++;
+        }
+        nextLabel[c] = lastCol[root];
+      } else {
+        nextLabel[c] = -1;
+      }
+    }
+    for (int c = 0; c < colCount; c++) {
+      if (nextLabel[c] == -1) {
+        nextLabel[c] = nextFree++;
+      }
+    }
+  }
+
+  /**
+   * Decides whether the next passage that is not part of the maze is opened, selecting exactly
+   * the required no. of passages out of all the candidates with equal probability.
+   *
+   * @return true if the passage is to be opened
+   */
+  private boolean selectExtraPath() {
+    long remaining = remainingCandidates--;
+    if (pendingExtraPaths == 0) {
+      return false;
+    }
+    if (pendingExtraPaths >= remaining
+            || r.getRandomInt(0, (int) remaining) < pendingExtraPaths) {
+      pendingExtraPaths--;
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,47 @@
+package dungeon;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the rows of a streamed dungeon as text, drawing each row the same way as the game
+ * driver prints a dungeon. Each location is drawn as 0, or as T if it is a cave with treasure,
+ * followed by -- if its east door is open, and the line below a row marks each open south door
+ * with |. Only the current row is held in memory.
+ */
+public class TextRowSink implements RowSink {
+  private static final int EAST_DOOR = Direction.EAST.doorBit();
+  private static final int SOUTH_DOOR = Direction.SOUTH.doorBit();
+
+  private final Writer out;
+
+  /**
+   * Creates a sink that writes the rows to the given writer.
+   *
+   * @param out the writer to which the rows are written
+   */
+  public TextRowSink(Writer out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Writer cannot be null.");
+    }
+    this.out = out;
+  }
+
+  @Override
+  public void acceptRow(int row, byte[] doors, int[] treasure) throws IOException {
+    for (int c = 0; c < doors.length; c++) {
+      out.write(treasure[c] != 0 ? "T" : "0");
+      out.write((doors[c] & EAST_DOOR) != 0 ? "--" : "  ");
+    }
+    out.write(System.lineSeparator());
+    for (int c = 0; c < doors.length; c++) {
+      out.write((doors[c] & SOUTH_DOOR) != 0 ? "|  " : "   ");
+    }
+    out.write(System.lineSeparator());
+  }
+
+  @Override
+  public void finish() throws IOException {
+    out.flush();
+  }
+}
@@ -1,15 +1,27 @@
 package dungeon;
 
-import java.util.Random;
+import randoms.Randomizer;
+
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents the types of Treasure that is available in the dungeon. The quantity of each type
- * of treasure is randomly generated.
+ * of treasure is randomly generated. The quantities of all 3 types of treasure in a cave can be
+ * packed into a single int word, using 8 bits for each type.
  */
 public enum Treasure {
-  DIAMONDS(),
-  SAPPHIRES(),
-  RUBIES();
+  DIAMONDS(0),
+  SAPPHIRES(8),
+  RUBIES(16);
+
+  private static final int MIN_LIMIT = 0;
+  private static final int MAX_LIMIT = 10;
+
+  private final int shift;
+
+  Treasure(int shift) {
+    this.shift = shift;
+  }
 
   /**
    * Generates the count of treasure for each type of treasure randomly.
@@ -17,20 +29,57 @@ public enum Treasure {
    * @return the randomly generated count
    */
   public int getRandomQuantity() {
-    int maxLimit = 10;
-    int minLimit = 0;
-    Random r = new Random();
-    return r.nextInt(maxLimit - minLimit) + minLimit;
+    return ThreadLocalRandom.current().nextInt(MIN_LIMIT, MAX_LIMIT);
   }
 
-}
-
-
-
-
-
-
-
+  /**
+   * Generates the count of treasure for each type of treasure using the given randomizer, so
+   * that the count can be reproduced from the seed of the randomizer.
+   *
+   * @param r the randomizer object
+   * @return the randomly generated count
+   */
+  public int getRandomQuantity(Randomizer r) {
+    if (r == null) {
+      throw new IllegalArgumentException("Randomizer cannot be null.");
+    }
+    return r.getRandomInt(MIN_LIMIT, MAX_LIMIT);
+  }
 
+  /**
+   * Converts 16 random bits into a count of treasure, for treasure that is derived from a hash
+   * instead of being drawn from a randomizer.
+   *
+   * @param bits the random bits, of which only the lowest 16 are used
+   * @return the count for the given bits
+   */
+  int quantityOf(long bits) {
+    return (int) (((bits & 0xFFFF) * (MAX_LIMIT - MIN_LIMIT)) >>> 16) + MIN_LIMIT;
+  }
 
+  /**
+   * Gets the count of this type of treasure from a packed treasure word.
+   *
+   * @param word the packed treasure word
+   * @return the count of this type of treasure
+   */
+  public int countIn(int word) {
+    return (word >>> shift) & 0xFF;
+  }
 
+  /**
+   * Packs the counts of the 3 types of treasure into a single treasure word.
+   *
+   * @param diamondCount  the count of diamonds, from 0 to 255
+   * @param sapphireCount the count of sapphires, from 0 to 255
+   * @param rubyCount     the count of rubies, from 0 to 255
+   * @return the packed treasure word
+   */
+  public static int pack(int diamondCount, int sapphireCount, int rubyCount) {
+    if ((diamondCount | sapphireCount | rubyCount) < 0
+            || diamondCount > 0xFF || sapphireCount > 0xFF || rubyCount > 0xFF) {
+      throw new IllegalArgumentException("Treasure count should be in the range 0-255.");
+    }
+    return diamondCount | (sapphireCount << SAPPHIRES.shift) | (rubyCount << RUBIES.shift);
+  }
+}
@@ -0,0 +1,95 @@
+package dungeon;
+
+import randoms.Randomizer;
+
+/**
+ * Represents the policy used to choose which caves of a dungeon are assigned treasure. Every
+ * policy makes exactly one random draw per chosen cave, plus one draw to pick the centre of the
+ * cluster for the clustered policy. The cost of choosing k caves differs between the policies
+ * and is given with each of them.
+ */
+public enum TreasurePlacement {
+  /**
+   * Every cave is equally likely to get treasure. The caves are chosen in O(caves) time, for
+   * copying the caves before the partial shuffle.
+   */
+  UNIFORM {
+    @Override
+    int[] choose(int[] caves, int count, ContractedCaveGraph graph, int start, Randomizer r) {
+      //shuffle only the first count caves of a copy, which is a partial Fisher-Yates shuffle
+      int[] chosen = caves.clone();
+      for (int i = 0; i < count; i++) {
+        int j = i + r.getRandomInt(0, chosen.length - i);
+        int cave = chosen[j];
+        chosen[j] = chosen[i];
+        chosen[i] = cave;
+      }
+      int[] result = new int[count];
+      System.arraycopy(chosen, 0, result, 0, count);
+      return result;
+    }
+  },
+
+  /**
+   * Caves are more likely to get treasure the farther they are from the start location, in
+   * proportion to their distance from it. The distances take a search of the contracted cave
+   * graph, which costs O((caves + chains) log caves), and the k weighted draws then cost
+   * O(caves + k log caves).
+   */
+  DISTANCE_WEIGHTED {
+    @Override
+    int[] choose(int[] caves, int count, ContractedCaveGraph graph, int start, Randomizer r) {
+      return chooseWeighted(caves, count, graph, start, false, r);
+    }
+  },
+
+  /**
+   * A random cave is chosen as the centre of a cluster and caves are more likely to get treasure
+   * the nearer they are to it, in proportion to how much nearer they are than the farthest cave.
+   * As with the distance weighted policy, this costs a search of the contracted cave graph in
+   * O((caves + chains) log caves) plus O(caves + k log caves) for the weighted draws.
+   */
+  CLUSTERED {
+    @Override
+    int[] choose(int[] caves, int count, ContractedCaveGraph graph, int start, Randomizer r) {
+      int centre = caves[r.getRandomInt(0, caves.length)];
+      return chooseWeighted(caves, count, graph, centre, true, r);
+    }
+  };
+
+  /**
+   * Chooses the caves that get treasure.
+   *
+   * @param caves the cell ids of all the caves, in increasing order
+   * @param count the no. of caves to choose, which is at most the no. of caves
+   * @param graph the caves of the dungeon, used to find the distances between them
+   * @param start the cell id of the start location
+   * @param r     the randomizer used for the draws
+   * @return the cell ids of the chosen caves, in the order they were chosen
+   */
+  abstract int[] choose(int[] caves, int count, ContractedCaveGraph graph, int start,
+                        Randomizer r);
+
+  private static int[] chooseWeighted(int[] caves, int count, ContractedCaveGraph graph,
+                                      int from, boolean nearer, Randomizer r) {
+    graph.distancesFrom(from);
+    int farthest = 0;
+    for (int cave : caves) {
+      farthest = Math.max(farthest, graph.distanceTo(cave));
+    }
+    //scale the distances down if needed so that the total weight fits in an int
+    long scale = Math.min(Math.max(farthest, 1), Integer.MAX_VALUE / caves.length - 1);
+    int[] weights = new int[caves.length];
+    for (int i = 0; i < caves.length; i++) {
+      int distance = Math.max(graph.distanceTo(caves[i]), 0);
+      long closeness = nearer ? farthest - distance : distance;
+      weights[i] = 1 + (int) (closeness * scale / Math.max(farthest, 1));
+    }
+    IndexSelector selector = new IndexSelector(weights);
+    int[] result = new int[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = caves[selector.select(r.getRandomInt(0, selector.remaining()))];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,35 @@
+package dungeon;
+
+/**
+ * Represents the storage of the treasure at every location of a dungeon, as packed treasure
+ * words. The interface and all its methods are kept package private as they will be used only
+ * within the dungeon model package.
+ */
+interface TreasureStore {
+  /**
+   * Gets the treasure at a location.
+   *
+   * @param cell the cell id of the location
+   * @return the packed treasure word of the location
+   */
+  int get(int cell);
+
+  /**
+   * Removes all the treasure at a location.
+   *
+   * @param cell the cell id of the location
+   * @return the packed treasure word of the treasure that was at the location
+   */
+  int take(int cell);
+
+  /**
+   * Tells the store that the doors of a location are about to be changed. The treasure of a
+   * location never changes with its doors, so a store that tells caves from tunnels by reading
+   * the doors must remember what the location was before the change.
+   *
+   * @param cell the cell id of the location
+   */
+  default void doorsChanging(int cell) {
+    //the treasure is stored per location, whatever its doors
+  }
+}
@@ -16,6 +16,16 @@ public class RandomGenerator implements Randomizer {
     r = new Random();
   }
 
+  /**
+   * Constructs an instance of Random Generator class whose values are determined by the given
+   * seed, so that the same seed always generates the same sequence of values.
+   *
+   * @param seed the seed of the java Random object
+   */
+  public RandomGenerator(long seed) {
+    r = new Random(seed);
+  }
+
   @Override
   public int getRandomInt(int minValue, int maxValue) {
     if (minValue > maxValue) {
@@ -24,6 +34,11 @@ public class RandomGenerator implements Randomizer {
     return r.nextInt(maxValue - minValue) + minValue;
   }
 
+  @Override
+  public Randomizer split() {
+    return new RandomGenerator(r.nextLong());
+  }
+
   @Override
   public void setDummyRandomValue(List<Integer> r) {
     // This method is supposed to be empty as it is used to set the values for Randomizer object
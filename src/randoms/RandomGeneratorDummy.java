@@ -3,23 +3,26 @@ package randoms;
 import java.util.List;
 
 /**
- * Class to mock generation of Random values for test cases and driver runs.
+ * Class to mock generation of Random values for test cases and driver runs. The values are
+ * returned in order by moving a cursor over the list, so each draw takes constant time. Split
+ * streams share the cursor, so a script lists every value in the order it is drawn, whichever
+ * stream draws it.
  */
 public class RandomGeneratorDummy implements Randomizer {
   private List<Integer> values;
+  private int cursor;
 
   @Override
   public int getRandomInt(int minValue, int maxValue) {
     if (minValue > maxValue) {
       throw new IllegalArgumentException("Lower bound cannot be greater than upper bound.");
     }
-    int value = values.get(0);
-    this.values.remove(0);
-    return value;
+    return values.get(cursor++);
   }
 
   @Override
   public void setDummyRandomValue(List<Integer> values) {
     this.values = values;
+    this.cursor = 0;
   }
 }
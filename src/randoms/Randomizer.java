@@ -14,6 +14,17 @@ public interface Randomizer {
    */
   public int getRandomInt(int minValue, int maxValue);
 
+  /**
+   * Creates a new randomizer for a separate stream of values, such as the values used by
+   * another thread or by another part of the dungeon creation. By default the separate stream
+   * is this randomizer itself, so its values are drawn in turn with the values of this stream;
+   * randomizers that can create independent streams should override this method.
+   * @return the new randomizer
+   */
+  public default Randomizer split() {
+    return this;
+  }
+
   /**
    * Sets the random value to be used during testing.
    * @param r input random value
@@ -0,0 +1,126 @@
+package randoms;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class to record every value drawn from another randomizer, so that a run can later be
+ * reproduced with a ReplayRandomizer. Randomizers split from a recording randomizer record into
+ * the same log in the order the values are drawn, which reproduces runs that draw values on a
+ * single thread.
+ */
+public class RecordingRandomizer implements Randomizer {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Randomizer r;
+  private final Log log;
+
+  /**
+   * Constructs a randomizer that records the values drawn from the given randomizer.
+   *
+   * @param r the randomizer whose values are recorded
+   */
+  public RecordingRandomizer(Randomizer r) {
+    this(r, new Log());
+  }
+
+  private RecordingRandomizer(Randomizer r, Log log) {
+    if (r == null) {
+      throw new IllegalArgumentException("Randomizer cannot be null.");
+    }
+    this.r = r;
+    this.log = log;
+  }
+
+  @Override
+  public int getRandomInt(int minValue, int maxValue) {
+    int value = r.getRandomInt(minValue, maxValue);
+    log.add(value);
+    return value;
+  }
+
+  @Override
+  public Randomizer split() {
+    return new RecordingRandomizer(r.split(), log);
+  }
+
+  @Override
+  public void setDummyRandomValue(List<Integer> r) {
+    // This method is supposed to be empty as the recorded values come from the wrapped
+    // randomizer. The overridden method in RandomGeneratorDummy class will set a specific value
+    // for random when testing.
+  }
+
+  /**
+   * Gets the no. of values recorded so far.
+   *
+   * @return the no. of recorded values
+   */
+  public int getRecordedCount() {
+    return log.size;
+  }
+
+  /**
+   * Gets a copy of the values recorded so far, in the order they were drawn.
+   *
+   * @return the recorded values
+   */
+  public int[] getRecordedValues() {
+    return Arrays.copyOf(log.values, log.size);
+  }
+
+  /**
+   * Writes the values recorded so far to a file as a sequence of big-endian ints, which can be
+   * replayed using ReplayRandomizer.open.
+   *
+   * @param path the file to write, which is replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public void writeTo(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer block = ByteBuffer.allocate(1 << 16);
+      for (int i = 0; i < log.size; i++) {
+        if (block.remaining() < 4) {
+          drain(channel, block);
+        }
+        block.putInt(log.values[i]);
+      }
+      drain(channel, block);
+    }
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer block) throws IOException {
+    block.flip();
+    while (block.hasRemaining()) {
+      channel.write(block);
+    }
+    block.clear();
+  }
+
+  /**
+   * The growable array of recorded values shared by a recording randomizer and its splits.
+   */
+  private static final class Log {
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private void add(int value) {
+      if (size == values.length) {
+        if (size == Integer.MAX_VALUE - 8) {
+          throw new IllegalStateException("Too many values recorded.");
+        }
+        values = Arrays.copyOf(values, (int) Math.min((long) size * 2, Integer.MAX_VALUE - 8));
+      }
+      values[size++] = value;
+    }
+  }
+}
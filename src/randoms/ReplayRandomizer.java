@@ -0,0 +1,94 @@
+package randoms;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Class to replay a sequence of values recorded by a RecordingRandomizer. The values are read
+ * from an int array or from a memory mapped recording file by moving a cursor, so each draw takes
+ * constant time however long the recording is. Randomizers split from a replay randomizer share
+ * its cursor, matching the single log that the recording randomizer writes.
+ */
+public class ReplayRandomizer implements Randomizer {
+  private final IntBuffer values;
+
+  /**
+   * Constructs a randomizer that replays the given values in order.
+   *
+   * @param values the recorded values
+   */
+  public ReplayRandomizer(int[] values) {
+    this(IntBuffer.wrap(values.clone()));
+  }
+
+  private ReplayRandomizer(IntBuffer values) {
+    this.values = values;
+  }
+
+  /**
+   * Opens a recording file written by RecordingRandomizer.writeTo and replays its values
+   * directly off a memory mapping of the file.
+   *
+   * @param path the recording file
+   * @return the randomizer replaying the recorded values
+   * @throws IOException if the file cannot be read or is not a recording
+   */
+  public static ReplayRandomizer open(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null.");
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size % 4 != 0) {
+        throw new IOException("Recording file size is not a whole no. of values.");
+      }
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Recording file is too large to be mapped.");
+      }
+      return new ReplayRandomizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+              .asIntBuffer());
+    }
+  }
+
+  @Override
+  public int getRandomInt(int minValue, int maxValue) {
+    if (minValue > maxValue) {
+      throw new IllegalArgumentException("Lower bound cannot be greater than upper bound.");
+    }
+    if (!values.hasRemaining()) {
+      throw new IllegalStateException("The recorded values have all been replayed.");
+    }
+    int value = values.get();
+    if (value < minValue || (value >= maxValue && minValue != maxValue)) {
+      throw new IllegalStateException("Recorded value " + value + " at position "
+              + (values.position() - 1) + " is outside the range " + minValue + "-" + maxValue
+              + ", the replay no longer follows the recorded run.");
+    }
+    return value;
+  }
+
+  @Override
+  public Randomizer split() {
+    return this;
+  }
+
+  @Override
+  public void setDummyRandomValue(List<Integer> r) {
+    // This method is supposed to be empty as the replayed values come from the recording. The
+    // overridden method in RandomGeneratorDummy class will set a specific value for random when
+    // testing.
+  }
+
+  /**
+   * Gets the no. of recorded values that have not been replayed yet.
+   *
+   * @return the no. of remaining values
+   */
+  public int getRemainingCount() {
+    return values.remaining();
+  }
+}
@@ -0,0 +1,48 @@
+package randoms;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class to generate the Random values required by different methods from an explicit seed. The
+ * same seed always generates the same sequence of values, and split creates child generators
+ * whose values are independent of the parent, so that the work started from one seed can be
+ * handed out to several threads and still be reproduced exactly. The generator itself is not
+ * thread safe, so each thread should use its own split generator.
+ */
+public class SplittableRandomGenerator implements Randomizer {
+  private final SplittableRandom r;
+
+  /**
+   * Constructs a generator whose values are determined by the given seed.
+   *
+   * @param seed the seed of the generator
+   */
+  public SplittableRandomGenerator(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private SplittableRandomGenerator(SplittableRandom r) {
+    this.r = r;
+  }
+
+  @Override
+  public int getRandomInt(int minValue, int maxValue) {
+    if (minValue > maxValue) {
+      throw new IllegalArgumentException("Lower bound cannot be greater than upper bound.");
+    }
+    return r.nextInt(maxValue - minValue) + minValue;
+  }
+
+  @Override
+  public Randomizer split() {
+    return new SplittableRandomGenerator(r.split());
+  }
+
+  @Override
+  public void setDummyRandomValue(List<Integer> r) {
+    // This method is supposed to be empty as the values of this generator are determined by its
+    // seed. The overridden method in RandomGeneratorDummy class will set a specific value for
+    // random when testing.
+  }
+}
@@ -0,0 +1,478 @@
+package server;
+
+import dungeon.Direction;
+import dungeon.DungeonGame;
+import dungeon.GameModel;
+import dungeon.MoveOutcome;
+import randoms.RandomGenerator;
+import randoms.Randomizer;
+import randoms.SplittableRandomGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A TCP server that hosts one dungeon game per connection. Clients send one command per line and
+ * receive one reply per line, which starts with OK or ERR. The commands are:
+ * <ul>
+ *   <li>create rows cols degree wrap percent [seed] - starts a new game with a player at the
+ *   start location, replacing any game of the session</li>
+ *   <li>move direction - moves the player North, East, South or West</li>
+ *   <li>pick - picks the treasure at the location of the player</li>
+ *   <li>describe - describes the location of the player</li>
+ *   <li>quit - ends the session</li>
+ * </ul>
+ * All connections are served by a single selector thread with non-blocking channels, and each
+ * session keeps its own small input buffer, pending reply and game. Commands are run by a small
+ * pool of worker threads, so that creating a large dungeon does not hold up other sessions, and
+ * a session does not read its next command until the reply to the previous one has been
+ * written. The no. of threads is therefore fixed however many sessions are connected, and idle
+ * sessions cost little more than their game.
+ */
+public final class DungeonServer implements Closeable {
+  private static final Logger LOG = Logger.getLogger(DungeonServer.class.getName());
+  private static final int MAX_LINE_LENGTH = 256;
+  private static final long MAX_CELLS = 1L << 20;
+
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final ExecutorService workers;
+  private final Set<Session> sessions;
+  private final Queue<Session> replied;
+  private final Thread selectorThread;
+  private volatile boolean closed;
+
+  /**
+   * Starts a server listening on the given port of the loopback address.
+   *
+   * @param port the port to listen on, or 0 to use any free port
+   * @throws IOException if the port cannot be bound
+   */
+  public DungeonServer(int port) throws IOException {
+    this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  /**
+   * Starts a server listening on the given address.
+   *
+   * @param address the address to listen on
+   * @throws IOException if the address cannot be bound
+   */
+  public DungeonServer(InetSocketAddress address) throws IOException {
+    if (address == null) {
+      throw new IllegalArgumentException("Address cannot be null.");
+    }
+    this.serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.bind(address, 1024);
+      serverChannel.configureBlocking(false);
+      this.selector = Selector.open();
+    } catch (IOException e) {
+      serverChannel.close();
+      throw e;
+    }
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    this.workers = newWorkers();
+    this.sessions = ConcurrentHashMap.newKeySet();
+    this.replied = new ConcurrentLinkedQueue<>();
+    this.selectorThread = new Thread(this::serve, "dungeon-server-selector");
+    selectorThread.setDaemon(true);
+    selectorThread.start();
+  }
+
+  /**
+   * Runs a server on the loopback address until the process is stopped.
+   *
+   * @param args the port to listen on, which is 7070 if not given
+   * @throws IOException          if the port cannot be bound
+   * @throws InterruptedException if the main thread is interrupted while serving
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+    DungeonServer server = new DungeonServer(port);
+    System.out.println("Dungeon server listening on port " + server.getPort());
+    server.selectorThread.join();
+  }
+
+  /**
+   * Creates the pool of threads that run the commands, with one thread per processor.
+   */
+  private static ExecutorService newWorkers() {
+    AtomicInteger count = new AtomicInteger();
+    int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    return Executors.newFixedThreadPool(threads, task -> {
+      Thread t = new Thread(task, "dungeon-server-worker-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Gets the port the server is listening on.
+   *
+   * @return the local port of the server
+   */
+  public int getPort() {
+    try {
+      return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      throw new IllegalStateException("Server is closed.", e);
+    }
+  }
+
+  /**
+   * Gets the no. of sessions that are currently connected.
+   *
+   * @return the no. of open sessions
+   */
+  public int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Stops accepting connections and ends all open sessions.
+   *
+   * @throws IOException if the listening channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    selector.wakeup();
+    if (Thread.currentThread() != selectorThread) {
+      try {
+        selectorThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    workers.shutdownNow();
+    serverChannel.close();
+  }
+
+  /**
+   * Runs the selector loop, which accepts connections, reads commands, hands them to the workers
+   * and writes the replies, until the server is closed.
+   */
+  private void serve() {
+    try {
+      while (!closed) {
+        selector.select();
+        Session session;
+        while ((session = replied.poll()) != null) {
+          session.sendReply();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          } else {
+            ((Session) key.attachment()).ready(key);
+          }
+        }
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      if (!closed) {
+        LOG.log(Level.SEVERE, "Dungeon server stopped.", e);
+      }
+    } finally {
+      for (Session session : sessions) {
+        session.close();
+      }
+      try {
+        selector.close();
+      } catch (IOException e) {
+        // the server is shutting down either way
+      }
+    }
+  }
+
+  private void accept() {
+    SocketChannel channel = null;
+    try {
+      channel = serverChannel.accept();
+      if (channel == null) {
+        return;
+      }
+      channel.configureBlocking(false);
+      Session session = new Session(channel);
+      session.key = channel.register(selector, SelectionKey.OP_READ, session);
+      sessions.add(session);
+    } catch (IOException e) {
+      if (channel != null) {
+        closeQuietly(channel);
+      }
+    }
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // the session is over either way
+    }
+  }
+
+  /**
+   * A connection to one client, playing one game at a time. The buffers and flags of a session
+   * are only used by the selector thread, while the game is only used by the worker running the
+   * current command, and a session has at most one command running at a time.
+   */
+  private final class Session {
+    private final SocketChannel channel;
+    private final ByteBuffer in;
+    private SelectionKey key;
+    private int scanned;
+    private ByteBuffer out;
+    private boolean running;
+    private boolean closeAfterReply;
+    private volatile String reply;
+    private GameModel game;
+
+    private Session(SocketChannel channel) {
+      this.channel = channel;
+      this.in = ByteBuffer.allocate(MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Handles the channel of the session being ready to read or write.
+     */
+    private void ready(SelectionKey key) {
+      try {
+        if (key.isWritable()) {
+          flush();
+        } else if (key.isReadable()) {
+          if (channel.read(in) < 0) {
+            close();
+            return;
+          }
+          processLines();
+        }
+      } catch (IOException e) {
+        // the client has gone away
+        close();
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Dungeon server session failed.", e);
+        close();
+      }
+    }
+
+    /**
+     * Starts the next command that has been read in full, or waits for more input when there is
+     * none, unless a command is already running or its reply is still being written.
+     */
+    private void processLines() throws IOException {
+      while (out == null && !running) {
+        String line = nextLine();
+        if (line == null) {
+          if (!in.hasRemaining()) {
+            closeAfterReply = true;
+            send("ERR Commands are limited to " + MAX_LINE_LENGTH + " characters.");
+          } else {
+            key.interestOps(SelectionKey.OP_READ);
+          }
+          return;
+        }
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] args = line.split("\\s+");
+        String command = args[0].toLowerCase(Locale.ROOT);
+        if (command.equals("quit")) {
+          closeAfterReply = true;
+          send("OK Bye.");
+          return;
+        }
+        running = true;
+        key.interestOps(0);
+        workers.execute(() -> run(command, args));
+      }
+    }
+
+    /**
+     * Runs a command on a worker thread and hands the reply back to the selector thread.
+     */
+    private void run(String command, String[] args) {
+      String result;
+      try {
+        result = handle(command, args);
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Command " + command + " failed.", e);
+        result = "ERR Command failed.";
+      }
+      reply = result;
+      replied.add(this);
+      selector.wakeup();
+    }
+
+    private void sendReply() {
+      running = false;
+      if (!channel.isOpen()) {
+        return;
+      }
+      try {
+        send(reply);
+      } catch (IOException e) {
+        close();
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Dungeon server session failed.", e);
+        close();
+      }
+    }
+
+    private void send(String reply) throws IOException {
+      out = ByteBuffer.wrap((reply + "\n").getBytes(StandardCharsets.US_ASCII));
+      flush();
+    }
+
+    /**
+     * Writes as much of the pending reply as the channel takes, and carries on with the next
+     * command once the whole reply is written.
+     */
+    private void flush() throws IOException {
+      channel.write(out);
+      if (out.hasRemaining()) {
+        key.interestOps(SelectionKey.OP_WRITE);
+        return;
+      }
+      out = null;
+      if (closeAfterReply) {
+        close();
+        return;
+      }
+      processLines();
+    }
+
+    private void close() {
+      sessions.remove(this);
+      if (key != null) {
+        key.cancel();
+      }
+      closeQuietly(channel);
+    }
+
+    private String handle(String command, String[] args) {
+      try {
+        switch (command) {
+          case "create":
+            return create(args);
+          case "move":
+            return move(args);
+          case "pick":
+            requireGame().pickTreasureAtLocation();
+            return "OK " + oneLine(game.getPlayerDescription());
+          case "describe":
+            return "OK " + oneLine(requireGame().getPlayerLocationDescription());
+          default:
+            return "ERR Unknown command " + command + ".";
+        }
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        return "ERR " + e.getMessage();
+      }
+    }
+
+    private String create(String[] args) {
+      if (args.length != 6 && args.length != 7) {
+        return "ERR Usage: create rows cols degree wrap percent [seed]";
+      }
+      int rowCount = Integer.parseInt(args[1]);
+      int colCount = Integer.parseInt(args[2]);
+      int degOfInterconnectivity = Integer.parseInt(args[3]);
+      boolean isWrap = parseBoolean(args[4]);
+      int percentCavesForTreasure = Integer.parseInt(args[5]);
+      if ((long) rowCount * colCount > MAX_CELLS) {
+        return "ERR Dungeons are limited to " + MAX_CELLS + " locations.";
+      }
+      Randomizer r = args.length == 7
+              ? new SplittableRandomGenerator(Long.parseLong(args[6])) : new RandomGenerator();
+      GameModel g = new DungeonGame(rowCount, colCount, degOfInterconnectivity, isWrap,
+              percentCavesForTreasure, r);
+      g.createPlayer();
+      g.addPlayerInDungeon();
+      game = g;
+      return "OK Start " + g.getStartLocation() + " End " + g.getEndLocation();
+    }
+
+    private String move(String[] args) {
+      if (args.length != 2) {
+        return "ERR Usage: move direction";
+      }
+      String name = args[1];
+      Direction direction = Direction.fromName(name.substring(0, 1).toUpperCase(Locale.ROOT)
+              + name.substring(1).toLowerCase(Locale.ROOT));
+      if (direction == null) {
+        return "ERR Invalid move.";
+      }
+      MoveOutcome outcome = requireGame().movePlayer(direction);
+      if (outcome == MoveOutcome.BLOCKED) {
+        return "ERR Invalid move.";
+      }
+      return "OK " + outcome + " " + game.getPlayerLocation();
+    }
+
+    private GameModel requireGame() {
+      if (game == null) {
+        throw new IllegalStateException("No game has been created for this session.");
+      }
+      return game;
+    }
+
+    /**
+     * Takes the next complete line out of the input buffer, or returns null if the buffer does
+     * not hold one yet.
+     */
+    private String nextLine() {
+      for (int i = scanned; i < in.position(); i++) {
+        if (in.get(i) == '\n') {
+          byte[] bytes = new byte[i];
+          in.flip();
+          in.get(bytes);
+          in.get();
+          in.compact();
+          scanned = 0;
+          return new String(bytes, StandardCharsets.US_ASCII).trim();
+        }
+      }
+      scanned = in.position();
+      return null;
+    }
+  }
+
+  private static boolean parseBoolean(String s) {
+    if (s.equalsIgnoreCase("true") || s.equalsIgnoreCase("Y")) {
+      return true;
+    }
+    if (s.equalsIgnoreCase("false") || s.equalsIgnoreCase("N")) {
+      return false;
+    }
+    throw new IllegalArgumentException("Wrap must be true or false.");
+  }
+
+  private static String oneLine(String description) {
+    return description.trim().replace("\n", " | ");
+  }
+}
@@ -0,0 +1,51 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import dungeon.DungeonBatchGenerator;
+import dungeon.DungeonConfig;
+import dungeon.GameModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Class for testing the batch generation of dungeons.
+ */
+public class DungeonBatchGeneratorTest {
+
+  @Test
+  public void testBatchIsReproducibleAcrossThreadCounts() {
+    List<DungeonConfig> configs = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      configs.add(new DungeonConfig(5 + i, 6, i, i % 2 == 0, 30));
+    }
+    ForkJoinPool single = new ForkJoinPool(1);
+    ForkJoinPool many = new ForkJoinPool(4);
+    List<GameModel> first = new DungeonBatchGenerator(single).generate(configs, 42L);
+    List<GameModel> second = new DungeonBatchGenerator(many).generate(configs, 42L);
+    single.shutdown();
+    many.shutdown();
+    assertEquals(configs.size(), first.size());
+    for (int i = 0; i < configs.size(); i++) {
+      assertEquals(first.get(i).getEdges(), second.get(i).getEdges());
+      assertEquals(first.get(i).getStartLocation(), second.get(i).getStartLocation());
+      assertEquals(first.get(i).getEndLocation(), second.get(i).getEndLocation());
+      first.get(i).createPlayer();
+      first.get(i).addPlayerInDungeon();
+      second.get(i).createPlayer();
+      second.get(i).addPlayerInDungeon();
+      assertEquals(first.get(i).getPlayerLocationDescription(),
+              second.get(i).getPlayerLocationDescription());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidConfigInBatch() {
+    List<DungeonConfig> configs = new ArrayList<>();
+    configs.add(new DungeonConfig(5, 5, 0, false, 20));
+    configs.add(new DungeonConfig(2, 5, 0, false, 20));
+    new DungeonBatchGenerator().generate(configs, 1L);
+  }
+}
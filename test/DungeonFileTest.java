@@ -0,0 +1,147 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+import dungeon.Direction;
+import dungeon.DungeonFile;
+import dungeon.DungeonGame;
+import dungeon.GameModel;
+import randoms.RandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for testing saving dungeons to and opening dungeons from dungeon files.
+ */
+public class DungeonFileTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSavedDungeonOpensUnchanged() throws IOException {
+    GameModel g = new DungeonGame(12, 9, 7, true, 60, new RandomGenerator(5L));
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    GameModel loaded = DungeonFile.open(path);
+    assertEquals(g.getStartLocation(), loaded.getStartLocation());
+    assertEquals(g.getEndLocation(), loaded.getEndLocation());
+    assertEquals(new HashSet<>(g.getEdges()), new HashSet<>(loaded.getEdges()));
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    loaded.createPlayer();
+    loaded.addPlayerInDungeon();
+    assertEquals(g.getPlayerLocationDescription(), loaded.getPlayerLocationDescription());
+    assertEquals(g.getPlayerDescription(), loaded.getPlayerDescription());
+  }
+
+  @Test
+  public void testEditedDungeonSavesItsEdges() throws IOException {
+    GameModel g = new DungeonGame(8, 8, 0, true, 60, new RandomGenerator(13L));
+    //the edge list is patched in place, so it must match the edges read back from the doors
+    for (int i = 0; i < 8; i++) {
+      g.openPassage("" + i + i, Direction.SOUTH);
+      g.openPassage("" + i + i, Direction.WEST);
+    }
+    for (String e : g.getEdges().subList(0, 20)) {
+      String[] p = e.split("-");
+      try {
+        g.closePassage(p[1], p[0].charAt(0) == p[1].charAt(0) ? Direction.WEST : Direction.NORTH);
+      } catch (IllegalStateException ex) {
+        //the path is needed to reach some location
+      }
+    }
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    GameModel loaded = DungeonFile.open(path);
+    assertEquals(g.getEdges().size(), new HashSet<>(g.getEdges()).size());
+    assertEquals(new HashSet<>(g.getEdges()), new HashSet<>(loaded.getEdges()));
+    assertEquals(g.getShortestPath(g.getStartLocation(), g.getEndLocation()).size(),
+            g.getDistanceToEnd(g.getStartLocation()));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testOpenedFileCannotBeEdited() throws IOException {
+    GameModel g = new DungeonGame(6, 6, 2, false, 60, new RandomGenerator(9L));
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    DungeonFile.open(path).openPassage("00", Direction.EAST);
+  }
+
+  @Test
+  public void testPickingTreasureLeavesFileUnchanged() throws IOException {
+    GameModel g = new DungeonGame(6, 6, 2, false, 100, new RandomGenerator(9L));
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    byte[] saved = Files.readAllBytes(path);
+    GameModel loaded = DungeonFile.open(path);
+    loaded.createPlayer();
+    loaded.addPlayerInDungeon();
+    String before = loaded.getPlayerLocationDescription();
+    loaded.pickTreasureAtLocation();
+    assertEquals(before.replaceAll("Diamonds- \\d+, Sapphires- \\d+, Rubies- \\d+",
+            "Diamonds- 0, Sapphires- 0, Rubies- 0"), loaded.getPlayerLocationDescription());
+    assertEquals(new String(saved, "ISO-8859-1"),
+            new String(Files.readAllBytes(path), "ISO-8859-1"));
+  }
+
+  @Test
+  public void testOpenReadOnlyFile() throws IOException {
+    GameModel g = new DungeonGame(6, 6, 2, false, 100, new RandomGenerator(9L));
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    assertTrue(path.toFile().setWritable(false, false));
+    GameModel loaded = DungeonFile.open(path);
+    loaded.createPlayer();
+    loaded.addPlayerInDungeon();
+    loaded.pickTreasureAtLocation();
+    assertTrue(loaded.getPlayerLocationDescription()
+            .contains("Diamonds- 0, Sapphires- 0, Rubies- 0"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testVerifyRejectsDoorsOffTheGrid() throws IOException {
+    DungeonFile.open(writeDoorOffTheGrid(), true);
+  }
+
+  @Test
+  public void testFirstReadRejectsDoorsOffTheGrid() throws IOException {
+    //the file opens without reading its doors, which are checked when they are first read
+    GameModel loaded = DungeonFile.open(writeDoorOffTheGrid());
+    try {
+      loaded.getEdges();
+      fail("A door leading off the grid was read.");
+    } catch (IllegalStateException e) {
+      assertEquals("Dungeon file has a door at cell 0 that does not match its neighbour.",
+              e.getMessage());
+    }
+  }
+
+  private Path writeDoorOffTheGrid() throws IOException {
+    GameModel g = new DungeonGame(6, 6, 2, false, 100, new RandomGenerator(9L));
+    Path path = folder.getRoot().toPath().resolve("dungeon.bin");
+    DungeonFile.write(g, path);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      //open the north door of the first location, which leads off a non wrapping grid
+      file.seek(32);
+      int doors = file.read();
+      file.seek(32);
+      file.write(doors | Direction.NORTH.doorBit());
+    }
+    return path;
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenRejectsOtherFiles() throws IOException {
+    Path path = folder.getRoot().toPath().resolve("other.bin");
+    Files.write(path, new byte[64]);
+    DungeonFile.open(path);
+  }
+}
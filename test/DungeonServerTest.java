@@ -0,0 +1,124 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import dungeon.DungeonGame;
+import dungeon.GameModel;
+import randoms.SplittableRandomGenerator;
+import server.DungeonServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for testing the dungeon game server over the loopback address.
+ */
+public class DungeonServerTest {
+  private DungeonServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new DungeonServer(0);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  /**
+   * A client connection which sends one command and reads one reply at a time.
+   */
+  private final class Client implements AutoCloseable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final PrintWriter writer;
+
+    private Client() throws IOException {
+      socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+      reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+              StandardCharsets.US_ASCII));
+      writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+              StandardCharsets.US_ASCII), true);
+    }
+
+    private String send(String command) throws IOException {
+      writer.println(command);
+      return reader.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void testSessionPlaysSeededGame() throws IOException {
+    GameModel expected = new DungeonGame(6, 8, 4, false, 100, new SplittableRandomGenerator(1L));
+    expected.createPlayer();
+    expected.addPlayerInDungeon();
+    try (Client client = new Client()) {
+      assertTrue(client.send("describe").startsWith("ERR"));
+      assertEquals("OK Start " + expected.getStartLocation() + " End "
+              + expected.getEndLocation(), client.send("create 6 8 4 false 100 1"));
+      assertEquals("OK " + expected.getPlayerLocationDescription().trim().replace("\n", " | "),
+              client.send("describe"));
+      assertEquals("ERR Invalid move.", client.send("move west"));
+      expected.movePlayerTo("East");
+      assertEquals("OK MOVED " + expected.getPlayerLocation(), client.send("move East"));
+      assertTrue(client.send("pick").startsWith("OK Current player details:"));
+      assertTrue(client.send("create 6 8 4 maybe 100").startsWith("ERR"));
+      assertTrue(client.send("jump").startsWith("ERR"));
+      assertEquals("OK Bye.", client.send("quit"));
+    }
+  }
+
+  @Test
+  public void testPipelinedCommandsAreAnsweredInOrder() throws IOException {
+    try (Client client = new Client()) {
+      client.writer.print("create 6 8 4 false 100 1\ndescribe\n\njump\n");
+      client.writer.flush();
+      assertTrue(client.reader.readLine().startsWith("OK Start"));
+      assertTrue(client.reader.readLine().startsWith("OK Current location details:"));
+      assertEquals("ERR Unknown command jump.", client.reader.readLine());
+      StringBuilder longLine = new StringBuilder();
+      for (int i = 0; i < 300; i++) {
+        longLine.append('x');
+      }
+      assertTrue(client.send(longLine.toString()).startsWith("ERR Commands are limited"));
+      assertEquals(null, client.reader.readLine());
+    }
+  }
+
+  @Test
+  public void testManyConcurrentSessions() throws IOException {
+    List<Client> clients = new ArrayList<>();
+    try {
+      for (int i = 0; i < 200; i++) {
+        Client client = new Client();
+        clients.add(client);
+        assertTrue(client.send("create 5 5 2 true 50 " + i).startsWith("OK Start"));
+      }
+      assertEquals(200, server.getSessionCount());
+      for (Client client : clients) {
+        assertTrue(client.send("describe").startsWith("OK Current location details:"));
+      }
+    } finally {
+      for (Client client : clients) {
+        client.close();
+      }
+    }
+  }
+}
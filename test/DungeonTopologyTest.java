@@ -0,0 +1,113 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dungeon.Direction;
+import dungeon.DungeonConfig;
+import dungeon.DungeonGame;
+import dungeon.DungeonTopology;
+import dungeon.GameModel;
+import randoms.SplittableRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for testing games played over a shared dungeon topology.
+ */
+public class DungeonTopologyTest {
+  private static final String NO_TREASURE = "Diamonds- 0, Sapphires- 0, Rubies- 0";
+
+  @Test
+  public void testTopologyMatchesGeneratedDungeon() {
+    DungeonConfig config = new DungeonConfig(7, 9, 5, true, 60);
+    GameModel g = new DungeonGame(config, new SplittableRandomGenerator(4L));
+    GameModel session = new DungeonGame(new DungeonTopology(config,
+            new SplittableRandomGenerator(4L)));
+    assertEquals(g.getStartLocation(), session.getStartLocation());
+    assertEquals(g.getEndLocation(), session.getEndLocation());
+    assertEquals(new HashSet<>(g.getEdges()), new HashSet<>(session.getEdges()));
+    assertEquals(g.getShortestPath(g.getStartLocation(), g.getEndLocation()),
+            session.getShortestPath(session.getStartLocation(), session.getEndLocation()));
+    assertEquals(g.getDistanceToEnd(g.getStartLocation()),
+            session.getDistanceToEnd(session.getStartLocation()));
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    session.createPlayer();
+    session.addPlayerInDungeon();
+    assertEquals(g.getPlayerLocationDescription(), session.getPlayerLocationDescription());
+  }
+
+  @Test
+  public void testSessionsPickTreasureIndependently() {
+    DungeonTopology topology = new DungeonTopology(new DungeonConfig(6, 8, 4, false, 100),
+            new SplittableRandomGenerator(1L));
+    GameModel first = new DungeonGame(topology);
+    GameModel second = new DungeonGame(topology);
+    first.createPlayer();
+    first.addPlayerInDungeon();
+    second.createPlayer();
+    second.addPlayerInDungeon();
+    String treasure = first.getPlayerLocationDescription();
+    assertTrue(!treasure.contains(NO_TREASURE));
+    first.pickTreasureAtLocation();
+    assertTrue(first.getPlayerLocationDescription().contains(NO_TREASURE));
+    assertTrue(!first.getPlayerDescription().endsWith(NO_TREASURE));
+    assertEquals(treasure, second.getPlayerLocationDescription());
+    first.movePlayer(Direction.EAST);
+    assertEquals(second.getStartLocation(), second.getPlayerLocation());
+  }
+
+  @Test
+  public void testSessionsFindRoutesConcurrently() throws InterruptedException {
+    DungeonTopology topology = new DungeonTopology(new DungeonConfig(20, 20, 30, true, 50),
+            new SplittableRandomGenerator(6L));
+    GameModel reference = new DungeonGame(topology);
+    String end = reference.getEndLocation();
+    List<String> locations = new ArrayList<>();
+    List<Integer> lengths = new ArrayList<>();
+    for (int row = 0; row < 20; row += 3) {
+      for (int col = 0; col < 20; col += 3) {
+        String location = String.format("%02d%02d", row, col);
+        locations.add(location);
+        lengths.add(reference.getShortestPath(location, end).size());
+      }
+    }
+    //every thread searches with its own buffers, so concurrent routes must not disturb each other
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger mismatches = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      GameModel session = new DungeonGame(topology);
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        for (int round = 0; round < 20; round++) {
+          for (int i = 0; i < locations.size(); i++) {
+            try {
+              if (session.getShortestPath(locations.get(i), end).size() != lengths.get(i)) {
+                mismatches.incrementAndGet();
+              }
+            } catch (RuntimeException e) {
+              mismatches.incrementAndGet();
+            }
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, mismatches.get());
+  }
+}
@@ -1,20 +1,29 @@
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import dungeon.Direction;
+import dungeon.DungeonConfig;
 import dungeon.DungeonGame;
 import dungeon.GameModel;
+import dungeon.MoveOutcome;
+import dungeon.MoveSummary;
+import dungeon.TreasurePlacement;
+import randoms.RandomGenerator;
 import randoms.RandomGeneratorDummy;
 import randoms.Randomizer;
+import randoms.SplittableRandomGenerator;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Class for testing the Game Model.
@@ -40,11 +49,15 @@ public class GameModelTest {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {21, 21, 9, 13, 22, 13, 4, 15, 12, 5, 13, 1, 20, 22, 13, 14, 20, 23, 20, 21,
-                      17};
+    int[] treasure = {7, 13, 1, 5, 3, 8};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {2, 5, 1, 0, 3, 7, 9, 4, 6, 1, 1, 8, 4, 0, 2, 7, 6, 3};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     r.setDummyRandomValue(randomValues);
     GameModel g = new DungeonGame(5, 5, 8,
             true, 40, r);
@@ -73,6 +86,8 @@ public class GameModelTest {
       g.pickTreasureAtLocation();
     }
     assertEquals(g.getPlayerLocation(), g.getEndLocation());
+    //the route passes all 6 treasure caves, which hold the scripted quantities
+    assertTrue(g.getPlayerDescription().endsWith("Diamonds- 23, Sapphires- 19, Rubies- 27"));
   }
 
   @Test
@@ -93,10 +108,15 @@ public class GameModelTest {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {14, 8, 22, 3, 6};
+    int[] treasure = {3, 8, 7, 6};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     r.setDummyRandomValue(randomValues);
     GameModel g = new DungeonGame(5, 5, 6,
             false, 40, r);
@@ -135,6 +155,8 @@ public class GameModelTest {
       moveCounter++;
       g.pickTreasureAtLocation();
     }
+    //the route passes all 4 treasure caves, which hold the scripted quantities
+    assertTrue(g.getPlayerDescription().endsWith("Diamonds- 9, Sapphires- 17, Rubies- 26"));
     int percent = Math.round(((treasureCaves.size() * 100) / allCaves.size() + 5) / 10) * 10;
     assertEquals(40, percent);
     assertEquals(g.getPlayerLocation(), g.getEndLocation());
@@ -158,10 +180,15 @@ public class GameModelTest {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {14, 8, 22, 3, 6};
+    int[] treasure = {3, 8, 7, 6};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     r.setDummyRandomValue(randomValues);
     GameModel g = new DungeonGame(5, 5, 6,
             false, 40, r);
@@ -186,6 +213,253 @@ public class GameModelTest {
     assertEquals("01",g.getPlayerLocation());
   }
 
+  @Test
+  public void testPlayerMovesByDirection() {
+    Randomizer r = new RandomGeneratorDummy();
+    List<Integer> randomValues = new ArrayList<>();
+    int[] kruskals = {20, 6, 7, 11, 17, 15, 29, 27, 5, 3, 6, 5, 7, 24, 6, 11, 17, 13, 9, 0, 18,
+                      5, 1, 16, 5, 8, 6, 3, 6, 5, 0, 1, 1, 3, 4, 2, 2, 0, 0, 0};
+    int[] interconnectivity = {8, 9, 6, 10, 0, 5};
+    int[] terminal = {19, 1};
+
+    for (int i = 0; i < kruskals.length; i++) {
+      randomValues.add(kruskals[i]);
+    }
+    for (int i = 0; i < interconnectivity.length; i++) {
+      randomValues.add(interconnectivity[i]);
+    }
+    for (int i = 0; i < terminal.length; i++) {
+      randomValues.add(terminal[i]);
+    }
+    int[] treasure = {3, 8, 7, 6};
+    for (int i = 0; i < treasure.length; i++) {
+      randomValues.add(treasure[i]);
+    }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
+    r.setDummyRandomValue(randomValues);
+    GameModel g = new DungeonGame(5, 5, 6,
+            false, 40, r);
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    assertEquals("01",g.getPlayerLocation());
+    assertEquals(MoveOutcome.MOVED, g.movePlayer(Direction.SOUTH));
+    assertEquals("11", g.getPlayerLocation());
+    assertEquals(MoveOutcome.MOVED, g.movePlayer(Direction.WEST));
+    assertEquals("10", g.getPlayerLocation());
+    assertEquals(MoveOutcome.MOVED, g.movePlayer(Direction.NORTH));
+    assertEquals("00", g.getPlayerLocation());
+    assertEquals(MoveOutcome.MOVED, g.movePlayer(Direction.EAST));
+    assertEquals("01", g.getPlayerLocation());
+    //invalid move(current location remains same)
+    assertEquals(MoveOutcome.BLOCKED, g.movePlayer(Direction.NORTH));
+    assertEquals("01", g.getPlayerLocation());
+    assertEquals("Invalid move.", g.movePlayerTo("Up"));
+  }
+
+  @Test
+  public void testPlayerMovesAlong() {
+    Randomizer r = new RandomGeneratorDummy();
+    List<Integer> randomValues = new ArrayList<>();
+    int[] kruskals = {20, 6, 7, 11, 17, 15, 29, 27, 5, 3, 6, 5, 7, 24, 6, 11, 17, 13, 9, 0, 18,
+                      5, 1, 16, 5, 8, 6, 3, 6, 5, 0, 1, 1, 3, 4, 2, 2, 0, 0, 0};
+    int[] interconnectivity = {8, 9, 6, 10, 0, 5};
+    int[] terminal = {19, 1};
+
+    for (int i = 0; i < kruskals.length; i++) {
+      randomValues.add(kruskals[i]);
+    }
+    for (int i = 0; i < interconnectivity.length; i++) {
+      randomValues.add(interconnectivity[i]);
+    }
+    for (int i = 0; i < terminal.length; i++) {
+      randomValues.add(terminal[i]);
+    }
+    int[] treasure = {3, 8, 7, 6};
+    for (int i = 0; i < treasure.length; i++) {
+      randomValues.add(treasure[i]);
+    }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
+    r.setDummyRandomValue(randomValues);
+    GameModel g = new DungeonGame(5, 5, 6,
+            false, 40, r);
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    //the fifth move is invalid, so the last move is never made
+    MoveSummary summary = g.movePlayerAlong(List.of(Direction.SOUTH, Direction.WEST,
+            Direction.NORTH, Direction.EAST, Direction.NORTH, Direction.EAST), false);
+    assertEquals(4, summary.getStepsTaken());
+    assertEquals("01", summary.getFinalLocation());
+    assertEquals(MoveOutcome.BLOCKED, summary.getLastOutcome());
+    assertEquals("01", g.getPlayerLocation());
+
+    summary = g.movePlayerAlong(List.of(Direction.WEST, Direction.EAST, Direction.EAST,
+            Direction.EAST), true);
+    assertEquals(4, summary.getStepsTaken());
+    assertEquals("03", summary.getFinalLocation());
+    assertEquals(MoveOutcome.MOVED, summary.getLastOutcome());
+    assertTrue(summary.getDiamondsGained() + summary.getSapphiresGained()
+            + summary.getRubiesGained() > 0);
+    assertEquals("\nCurrent player details: \nLocation: 03\nTreasure: Diamonds- "
+            + summary.getDiamondsGained() + ", Sapphires- " + summary.getSapphiresGained()
+            + ", Rubies- " + summary.getRubiesGained(), g.getPlayerDescription());
+
+    //a null direction is rejected before any move is made
+    try {
+      g.movePlayerAlong(Arrays.asList(Direction.WEST, null, Direction.EAST), true);
+      fail("A null direction should be rejected.");
+    } catch (IllegalArgumentException e) {
+      assertEquals("03", g.getPlayerLocation());
+    }
+  }
+
+  @Test
+  public void testShortestPath() {
+    Randomizer r = new RandomGenerator(11L);
+    GameModel g = new DungeonGame(7, 9, 8, true, 40, r);
+    List<String> edges = g.getEdges();
+    String[] locations = {"00", "08", "33", "60", "68", "45", g.getStartLocation(),
+                          g.getEndLocation()};
+    for (String from : locations) {
+      for (String to : locations) {
+        List<Direction> path = g.getShortestPath(from, to);
+        if (from.equals(to)) {
+          assertTrue(path.isEmpty());
+        } else {
+          assertEquals(bfsHelper(from, to, edges), path.size());
+        }
+      }
+    }
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    List<Direction> path = g.getShortestPath(g.getStartLocation(), g.getEndLocation());
+    MoveSummary summary = g.movePlayerAlong(path, false);
+    assertEquals(MoveOutcome.REACHED_END, summary.getLastOutcome());
+    assertEquals(path.size(), summary.getStepsTaken());
+    assertEquals(g.getEndLocation(), g.getPlayerLocation());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShortestPathInvalidLocation() {
+    GameModel g = new DungeonGame(5, 5, 2, false, 40, new RandomGenerator(3L));
+    g.getShortestPath("00", "55");
+  }
+
+  @Test
+  public void testDirectionsToEnd() {
+    GameModel g = new DungeonGame(8, 6, 5, true, 40, new RandomGenerator(17L));
+    assertEquals(0, g.getDistanceToEnd(g.getEndLocation()));
+    assertEquals(null, g.getDirectionToEnd(g.getEndLocation()));
+    int distance = g.getDistanceToEnd(g.getStartLocation());
+    assertEquals(g.getShortestPath(g.getStartLocation(), g.getEndLocation()).size(), distance);
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    //following the hints reduces the distance to the end by one with every move
+    while (!g.getPlayerLocation().equals(g.getEndLocation())) {
+      assertNotEquals(MoveOutcome.BLOCKED,
+              g.movePlayer(g.getDirectionToEnd(g.getPlayerLocation())));
+      distance--;
+      assertEquals(distance, g.getDistanceToEnd(g.getPlayerLocation()));
+    }
+    assertEquals(0, distance);
+  }
+
+  @Test
+  public void testOpenAndClosePassage() {
+    GameModel g = new DungeonGame(6, 6, 0, false, 40, new RandomGenerator(23L));
+    int edgeCount = g.getEdges().size();
+    //with no interconnectivity every path is needed to reach some location
+    assertEquals(35, edgeCount);
+    String[] edge = g.getEdges().get(0).split("-");
+    Direction direction = edge[0].charAt(0) == edge[1].charAt(0) ? Direction.EAST
+            : Direction.SOUTH;
+    try {
+      g.closePassage(edge[0], direction);
+      fail("A path needed to reach some location was closed.");
+    } catch (IllegalStateException e) {
+      assertEquals(edgeCount, g.getEdges().size());
+    }
+    //a passage that is opened makes a cycle, so any path on the cycle can then be closed
+    boolean opened = false;
+    for (int i = 0; i < 6 && !opened; i++) {
+      opened = g.openPassage("" + i + 0, Direction.EAST);
+    }
+    assertTrue(opened);
+    assertEquals(edgeCount + 1, g.getEdges().size());
+    assertEquals(g.getShortestPath(g.getStartLocation(), g.getEndLocation()).size(),
+            g.getDistanceToEnd(g.getStartLocation()));
+    int closed = 0;
+    for (String e : g.getEdges()) {
+      String[] p = e.split("-");
+      Direction d = p[0].charAt(0) == p[1].charAt(0) ? Direction.EAST : Direction.SOUTH;
+      try {
+        if (g.closePassage(p[0], d)) {
+          closed++;
+          break;
+        }
+      } catch (IllegalStateException ex) {
+        //the path is needed to reach some location
+      }
+    }
+    assertEquals(1, closed);
+    assertEquals(edgeCount, g.getEdges().size());
+    assertEquals(g.getShortestPath(g.getStartLocation(), g.getEndLocation()).size(),
+            g.getDistanceToEnd(g.getStartLocation()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOpenPassageOffGrid() {
+    GameModel g = new DungeonGame(6, 6, 0, false, 40, new RandomGenerator(23L));
+    g.openPassage("00", Direction.NORTH);
+  }
+
+  @Test
+  public void testTreasurePlacementPolicies() {
+    for (TreasurePlacement placement : TreasurePlacement.values()) {
+      GameModel g = new DungeonGame(new DungeonConfig(9, 9, 6, true, 100, 5, placement),
+              new RandomGenerator(29L));
+      g.createPlayer();
+      g.addPlayerInDungeon();
+      //every cave gets treasure, so the start cave describes its treasure
+      assertTrue(g.getPlayerLocationDescription().contains("Treasure: Diamonds- "));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTreasurePlacementRequired() {
+    new DungeonConfig(9, 9, 6, true, 40, 5, null);
+  }
+
+  @Test
+  public void testLazyTreasure() {
+    DungeonConfig config = new DungeonConfig(30, 30, 40, true, 100, 5, TreasurePlacement.UNIFORM,
+            true);
+    GameModel g = new DungeonGame(config, new RandomGenerator(31L));
+    GameModel same = new DungeonGame(config, new RandomGenerator(31L));
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    same.createPlayer();
+    same.addPlayerInDungeon();
+    //the treasure is derived from the seed, so the same seed always gives the same treasure
+    assertEquals(same.getPlayerLocationDescription(), g.getPlayerLocationDescription());
+    String description = g.getPlayerLocationDescription();
+    String treasure = description.substring(description.indexOf("Diamonds- "),
+            description.indexOf("\nNext"));
+    g.pickTreasureAtLocation();
+    assertTrue(g.getPlayerDescription().endsWith(treasure));
+    assertTrue(g.getPlayerLocationDescription()
+            .contains("Diamonds- 0, Sapphires- 0, Rubies- 0"));
+    g.pickTreasureAtLocation();
+    assertTrue(g.getPlayerDescription().endsWith(treasure));
+  }
+
   @Test
   public void testCaveReachability() {
     Randomizer r = new RandomGeneratorDummy();
@@ -204,10 +478,15 @@ public class GameModelTest {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {14, 8, 22, 3, 6};
+    int[] treasure = {3, 8, 7, 6};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     r.setDummyRandomValue(randomValues);
     GameModel g = new DungeonGame(5, 5, 6,
             false, 40, r);
@@ -245,10 +524,15 @@ public class GameModelTest {
     for (int i = 0; i < terminal.length; i++) {
       randomValues.add(terminal[i]);
     }
-    int[] treasure = {14, 8, 22, 3, 6};
+    int[] treasure = {3, 8, 7, 6};
     for (int i = 0; i < treasure.length; i++) {
       randomValues.add(treasure[i]);
     }
+    //the quantities of diamonds, sapphires and rubies of each chosen cave, in turn
+    int[] quantities = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3, 5, 8};
+    for (int i = 0; i < quantities.length; i++) {
+      randomValues.add(quantities[i]);
+    }
     r.setDummyRandomValue(randomValues);
     GameModel g = new DungeonGame(5, 5, 6,
             false, 40, r);
@@ -268,6 +552,41 @@ public class GameModelTest {
     assertNotEquals(playerDesc, g.getPlayerDescription());
   }
 
+  @Test
+  public void testLargeGridLocations() {
+    Randomizer r = new SplittableRandomGenerator(41L);
+    GameModel g = new DungeonGame(11, 12, 10, true, 40, r);
+    //rows and columns are both padded to 2 digits once the grid has more than 10 of them
+    Set<String> locations = new HashSet<>();
+    for (String edge : g.getEdges()) {
+      String[] p = edge.split("-");
+      assertEquals(4, p[0].length());
+      assertEquals(4, p[1].length());
+      locations.add(p[0]);
+      locations.add(p[1]);
+    }
+    assertEquals(11 * 12, locations.size());
+    assertTrue(locations.contains("1011"));
+    assertTrue(bfsHelper(g.getStartLocation(), g.getEndLocation(), g.getEdges()) >= 5);
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    assertEquals(g.getStartLocation(), g.getPlayerLocation());
+  }
+
+  @Test
+  public void testMinTerminalDistance() {
+    Randomizer r = new SplittableRandomGenerator(43L);
+    //corner to corner is 18 moves, so the farthest caves of any maze are at least that far apart
+    GameModel g = new DungeonGame(10, 10, 0, false, 20, 18, r);
+    assertTrue(bfsHelper(g.getStartLocation(), g.getEndLocation(), g.getEdges()) >= 18);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMinTerminalDistanceImpossible() {
+    Randomizer r = new SplittableRandomGenerator(47L);
+    new DungeonGame(3, 3, 0, false, 20, 9, r);
+  }
+
   /**
    * Helper method to calculate the distance between the start and end location given all the
    * available paths in the dungeon.
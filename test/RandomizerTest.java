@@ -1,10 +1,20 @@
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
+import dungeon.DungeonGame;
+import dungeon.GameModel;
 import randoms.RandomGenerator;
 import randoms.RandomGeneratorDummy;
+import randoms.RecordingRandomizer;
+import randoms.ReplayRandomizer;
+import randoms.SplittableRandomGenerator;
 import randoms.Randomizer;
 
 import static org.junit.Assert.assertEquals;
@@ -17,6 +27,9 @@ public class RandomizerTest {
   Randomizer r = new RandomGenerator();
   Randomizer r1 = new RandomGeneratorDummy();
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void getRandomIntRangeCheck() {
     assertTrue(r.getRandomInt(1, 4) >= 1 && r.getRandomInt(1, 4) <= 4);
@@ -44,8 +57,105 @@ public class RandomizerTest {
     assertEquals(5, r1.getRandomInt(1, 6));
   }
 
+  @Test
+  public void splitDummySharesTheScript() {
+    List<Integer> values = new ArrayList<>();
+    values.add(4);
+    values.add(7);
+    values.add(2);
+    r1.setDummyRandomValue(values);
+    assertEquals(4, r1.getRandomInt(0, 10));
+    Randomizer child = r1.split();
+    assertEquals(7, child.getRandomInt(0, 10));
+    assertEquals(2, r1.getRandomInt(0, 10));
+  }
+
+  @Test
+  public void defaultSplitSharesTheStream() {
+    Randomizer counter = new Randomizer() {
+      private int next;
+
+      @Override
+      public int getRandomInt(int minValue, int maxValue) {
+        return next++;
+      }
+
+      @Override
+      public void setDummyRandomValue(List<Integer> r) {
+        // Nothing is scripted for this randomizer.
+      }
+    };
+    assertEquals(0, counter.getRandomInt(0, 10));
+    assertEquals(1, counter.split().getRandomInt(0, 10));
+    assertEquals(2, counter.getRandomInt(0, 10));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void getRandomIntMinValueCheckDummy() {
     r1.getRandomInt(5, 2);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void splittableGeneratorIsReproducible() {
+    Randomizer first = new SplittableRandomGenerator(7L);
+    Randomizer second = new SplittableRandomGenerator(7L);
+    Randomizer firstChild = first.split();
+    Randomizer secondChild = second.split();
+    for (int i = 0; i < 20; i++) {
+      assertEquals(first.getRandomInt(0, 1000), second.getRandomInt(0, 1000));
+      assertEquals(firstChild.getRandomInt(3, 9), secondChild.getRandomInt(3, 9));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getRandomIntMinValueCheckSplittable() {
+    new SplittableRandomGenerator(1L).getRandomInt(5, 2);
+  }
+
+  @Test
+  public void replayReproducesRecordedDungeon() throws IOException {
+    RecordingRandomizer recorder = new RecordingRandomizer(new SplittableRandomGenerator(12L));
+    GameModel g = new DungeonGame(8, 11, 6, true, 50, recorder);
+    Path path = folder.getRoot().toPath().resolve("draws.bin");
+    recorder.writeTo(path);
+    ReplayRandomizer replay = ReplayRandomizer.open(path);
+    GameModel replayed = new DungeonGame(8, 11, 6, true, 50, replay);
+    assertEquals(0, replay.getRemainingCount());
+    assertEquals(g.getStartLocation(), replayed.getStartLocation());
+    assertEquals(g.getEndLocation(), replayed.getEndLocation());
+    assertEquals(new HashSet<>(g.getEdges()), new HashSet<>(replayed.getEdges()));
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    replayed.createPlayer();
+    replayed.addPlayerInDungeon();
+    assertEquals(g.getPlayerLocationDescription(), replayed.getPlayerLocationDescription());
+  }
+
+  @Test
+  public void dummyReproducesRecordedDungeon() {
+    RecordingRandomizer recorder = new RecordingRandomizer(new SplittableRandomGenerator(8L));
+    GameModel g = new DungeonGame(20, 20, 30, false, 60, recorder);
+    List<Integer> values = new ArrayList<>();
+    for (int value : recorder.getRecordedValues()) {
+      values.add(value);
+    }
+    //the treasure quantities are drawn through a split stream, which reads on from the script
+    r1.setDummyRandomValue(values);
+    GameModel scripted = new DungeonGame(20, 20, 30, false, 60, r1);
+    assertEquals(g.getStartLocation(), scripted.getStartLocation());
+    assertEquals(g.getEndLocation(), scripted.getEndLocation());
+    assertEquals(new HashSet<>(g.getEdges()), new HashSet<>(scripted.getEdges()));
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    scripted.createPlayer();
+    scripted.addPlayerInDungeon();
+    assertEquals(g.getPlayerLocationDescription(), scripted.getPlayerLocationDescription());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void replayRejectsDivergedDraws() {
+    Randomizer replay = new ReplayRandomizer(new int[] {3, 12});
+    assertEquals(3, replay.getRandomInt(0, 10));
+    replay.getRandomInt(0, 10);
+  }
+}
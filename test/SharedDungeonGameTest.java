@@ -0,0 +1,85 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import dungeon.Direction;
+import dungeon.DungeonConfig;
+import dungeon.MoveOutcome;
+import dungeon.MultiPlayerGameModel;
+import dungeon.SharedDungeonGame;
+import randoms.SplittableRandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Class for testing the dungeon game shared by many concurrent players.
+ */
+public class SharedDungeonGameTest {
+  private static final String NO_TREASURE = "Diamonds- 0, Sapphires- 0, Rubies- 0";
+
+  @Test
+  public void testPlayersMoveIndependently() {
+    MultiPlayerGameModel g = new SharedDungeonGame(new DungeonConfig(6, 8, 4, false, 100),
+            new SplittableRandomGenerator(1L));
+    int first = g.addPlayer();
+    int second = g.addPlayer();
+    assertEquals(2, g.getPlayerCount());
+    assertEquals(g.getStartLocation(), g.getPlayerLocation(first));
+    assertEquals(MoveOutcome.BLOCKED, g.movePlayer(first, Direction.WEST));
+    assertTrue(g.movePlayer(first, Direction.EAST) != MoveOutcome.BLOCKED);
+    assertTrue(!g.getPlayerLocation(first).equals(g.getPlayerLocation(second)));
+    assertEquals(g.getStartLocation(), g.getPlayerLocation(second));
+    g.removePlayer(second);
+    assertEquals(1, g.getPlayerCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownPlayer() {
+    MultiPlayerGameModel g = new SharedDungeonGame(new DungeonConfig(6, 8, 4, false, 100),
+            new SplittableRandomGenerator(1L));
+    g.movePlayer(3, Direction.EAST);
+  }
+
+  @Test
+  public void testTreasureIsPickedOnlyOnce() throws InterruptedException {
+    MultiPlayerGameModel g = new SharedDungeonGame(new DungeonConfig(6, 8, 4, false, 100),
+            new SplittableRandomGenerator(1L));
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      ids.add(g.addPlayer());
+    }
+    assertTrue(g.getPlayerLocationDescription(ids.get(0))
+            .contains("Diamonds- 8, Sapphires- 6, Rubies- 1"));
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int id : ids) {
+      Thread t = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        g.pickTreasureAtLocation(id);
+      });
+      t.start();
+      threads.add(t);
+    }
+    start.countDown();
+    for (Thread t : threads) {
+      t.join();
+    }
+    int winners = 0;
+    for (int id : ids) {
+      String description = g.getPlayerDescription(id);
+      if (!description.endsWith(NO_TREASURE)) {
+        assertTrue(description.endsWith("Diamonds- 8, Sapphires- 6, Rubies- 1"));
+        winners++;
+      }
+    }
+    assertEquals(1, winners);
+    assertTrue(g.getPlayerLocationDescription(ids.get(0)).contains(NO_TREASURE));
+  }
+}
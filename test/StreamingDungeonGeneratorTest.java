@@ -0,0 +1,150 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import dungeon.Direction;
+import dungeon.DungeonConfig;
+import dungeon.DungeonGame;
+import dungeon.GameModel;
+import dungeon.MoveOutcome;
+import dungeon.StreamingDungeonGenerator;
+import dungeon.TextRowSink;
+import randoms.RandomGenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for testing the row streaming dungeon generator.
+ */
+public class StreamingDungeonGeneratorTest {
+
+  @Test
+  public void testStreamedDungeonIsConnected() throws IOException {
+    int rows = 9;
+    int cols = 7;
+    int deg = 6;
+    for (boolean wrap : new boolean[]{false, true}) {
+      byte[][] grid = new byte[rows][];
+      new StreamingDungeonGenerator(new DungeonConfig(rows, cols, deg, wrap, 30),
+              new RandomGenerator(7L)).generate((row, doors, treasure) -> grid[row] = doors.clone());
+      int openDoors = 0;
+      for (byte[] row : grid) {
+        for (byte doors : row) {
+          openDoors += Integer.bitCount(doors);
+        }
+      }
+      //every path opens 2 doors, and the maze has one path less than locations plus the extras
+      assertEquals((rows * cols - 1 + deg) * 2, openDoors);
+      assertEquals(rows * cols, reachableFromOrigin(grid, wrap));
+    }
+  }
+
+  @Test
+  public void testTextSinkDrawsEveryRow() throws IOException {
+    StringWriter out = new StringWriter();
+    new StreamingDungeonGenerator(new DungeonConfig(4, 5, 0, false, 0),
+            new RandomGenerator(3L)).generate(new TextRowSink(out));
+    String[] lines = out.toString().split(System.lineSeparator());
+    assertEquals(8, lines.length);
+    assertTrue(lines[0].startsWith("0"));
+    assertTrue(!lines[7].contains("|"));
+  }
+
+  @Test
+  public void testOffHeapDungeonIsPlayable() {
+    for (boolean wrap : new boolean[]{false, true}) {
+      GameModel g = new StreamingDungeonGenerator(new DungeonConfig(9, 7, 6, wrap, 30),
+              new RandomGenerator(7L)).generateOffHeap();
+      assertEquals(9 * 7 - 1 + 6, g.getEdges().size());
+      List<Direction> path = g.getShortestPath(g.getStartLocation(), g.getEndLocation());
+      assertTrue(path.size() >= 5);
+      assertEquals(path.size(), g.getDistanceToEnd(g.getStartLocation()));
+      g.createPlayer();
+      g.addPlayerInDungeon();
+      assertEquals(MoveOutcome.REACHED_END, g.movePlayerAlong(path, true).getLastOutcome());
+      assertEquals(g.getEndLocation(), g.getPlayerLocation());
+    }
+  }
+
+  @Test
+  public void testClosedOffHeapDungeonCannotBePlayed() {
+    DungeonGame g = new StreamingDungeonGenerator(new DungeonConfig(9, 7, 6, false, 30),
+            new RandomGenerator(7L)).generateOffHeap();
+    g.createPlayer();
+    g.addPlayerInDungeon();
+    g.close();
+    g.close();
+    try {
+      g.getPlayerLocationDescription();
+      fail("A closed dungeon was read.");
+    } catch (IllegalStateException e) {
+      assertEquals("The dungeon has been closed.", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testLargeOffHeapDungeonAnswersEveryQuery() {
+    try (DungeonGame g = new StreamingDungeonGenerator(new DungeonConfig(2049, 2048, 0, false,
+            10), new RandomGenerator(11L)).generateOffHeap()) {
+      List<Direction> path = g.getShortestPath(g.getStartLocation(), g.getEndLocation());
+      assertEquals(path.size(), g.getDistanceToEnd(g.getStartLocation()));
+      assertTrue(g.getDirectionToEnd(g.getStartLocation()) != null);
+      List<String> edges = g.getEdges();
+      assertEquals(2049 * 2048 - 1, edges.size());
+      String last = null;
+      for (String e : edges) {
+        last = e;
+      }
+      assertEquals(edges.get(edges.size() - 1), last);
+      g.createPlayer();
+      g.addPlayerInDungeon();
+      assertEquals(MoveOutcome.REACHED_END, g.movePlayerAlong(path, true).getLastOutcome());
+      g.close();
+      try {
+        g.getDistanceToEnd(g.getStartLocation());
+        fail("The distances of a closed dungeon were found.");
+      } catch (IllegalStateException e) {
+        assertEquals("The dungeon has been closed.", e.getMessage());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidInterconnectivity() {
+    new StreamingDungeonGenerator(new DungeonConfig(3, 3, 100, false, 20),
+            new RandomGenerator(13L));
+  }
+
+  private int reachableFromOrigin(byte[][] grid, boolean wrap) {
+    int rows = grid.length;
+    int cols = grid[0].length;
+    boolean[][] visited = new boolean[rows][cols];
+    Deque<int[]> queue = new ArrayDeque<>();
+    queue.add(new int[]{0, 0});
+    visited[0][0] = true;
+    int count = 0;
+    int[][] offsets = {{-1, 0}, {0, 1}, {1, 0}, {0, -1}};
+    while (!queue.isEmpty()) {
+      int[] curr = queue.poll();
+      count++;
+      for (Direction d : Direction.values()) {
+        if ((grid[curr[0]][curr[1]] & d.doorBit()) != 0) {
+          int i = (curr[0] + offsets[d.ordinal()][0] + rows) % rows;
+          int j = (curr[1] + offsets[d.ordinal()][1] + cols) % cols;
+          assertTrue(wrap || (Math.abs(i - curr[0]) <= 1 && Math.abs(j - curr[1]) <= 1));
+          if (!visited[i][j]) {
+            visited[i][j] = true;
+            queue.add(new int[]{i, j});
+          }
+        }
+      }
+    }
+    return count;
+  }
+}
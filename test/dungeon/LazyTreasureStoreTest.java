@@ -0,0 +1,38 @@
+package dungeon;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Class for testing the treasure derived on demand, which is only visible within the dungeon
+ * model package.
+ */
+public class LazyTreasureStoreTest {
+
+  @Test
+  public void testChangedDoorsKeepTreasure() {
+    int north = DungeonGrid.doorBit(DungeonGrid.NORTH);
+    int east = DungeonGrid.doorBit(DungeonGrid.EAST);
+    int south = DungeonGrid.doorBit(DungeonGrid.SOUTH);
+    byte[] doors = {(byte) east, (byte) (east | south)};
+    TreasureStore store = new LazyTreasureStore(5L, 100, doors);
+    int cave = store.get(0);
+    assertNotEquals(0, cave);
+    assertEquals(0, store.get(1));
+    //the cave becomes a tunnel and the tunnel becomes a cave
+    store.doorsChanging(0);
+    doors[0] |= south;
+    store.doorsChanging(1);
+    doors[1] |= north;
+    assertEquals(cave, store.get(0));
+    assertEquals(0, store.get(1));
+    //changing the doors again does not forget what the location was when it was created
+    store.doorsChanging(0);
+    doors[0] &= ~south;
+    assertEquals(cave, store.get(0));
+    assertEquals(cave, store.take(0));
+    assertEquals(0, store.get(0));
+  }
+}
@@ -0,0 +1,30 @@
+package dungeon;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Class for testing the location checks of the player, which is only visible within the dungeon
+ * model package.
+ */
+public class MasterDungeonPlayerTest {
+
+  @Test
+  public void testPlayerOutsideDungeon() {
+    Player p = new MasterDungeonPlayer(0, 0, 0, DungeonGrid.NO_CELL);
+    assertEquals(DungeonGrid.NO_CELL, p.getLocation());
+    p.setLocation(0);
+    assertEquals(0, p.getLocation());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCreateWithInvalidLocation() {
+    new MasterDungeonPlayer(0, 0, 0, DungeonGrid.NO_CELL - 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMoveToInvalidLocation() {
+    new MasterDungeonPlayer(0, 0, 0, 3).setLocation(-5);
+  }
+}